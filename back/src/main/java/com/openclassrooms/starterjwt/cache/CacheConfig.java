@@ -0,0 +1,33 @@
+package com.openclassrooms.starterjwt.cache;
+
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+/**
+ * The Caffeine caches of {@code spring.cache.*}, made transaction-aware: a put or an evict
+ * issued inside a transaction only reaches the cache once it commits, so a reader cannot
+ * cache the old row again between the eviction and the commit, and a rollback evicts nothing.
+ */
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+    @Bean
+    public CacheManager cacheManager(CacheProperties properties) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager();
+        String spec = properties.getCaffeine().getSpec();
+        if (StringUtils.hasText(spec)) {
+            caffeine.setCacheSpecification(spec);
+        }
+        if (!properties.getCacheNames().isEmpty()) {
+            caffeine.setCacheNames(properties.getCacheNames());
+        }
+
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
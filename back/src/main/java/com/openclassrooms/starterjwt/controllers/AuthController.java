@@ -1,7 +1,15 @@
 package com.openclassrooms.starterjwt.controllers;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
 import javax.validation.Valid;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -9,20 +17,27 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
+import com.openclassrooms.starterjwt.payload.request.RefreshTokenRequest;
 import com.openclassrooms.starterjwt.payload.request.SignupRequest;
 import com.openclassrooms.starterjwt.payload.response.JwtResponse;
 import com.openclassrooms.starterjwt.payload.response.MessageResponse;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.JwtKeyRing;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.services.RefreshTokenService;
+import com.openclassrooms.starterjwt.security.services.TokenRevocationService;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 
+import io.jsonwebtoken.Claims;
+
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/auth")
@@ -31,15 +46,27 @@ public class AuthController {
     private final JwtUtils jwtUtils;
     private final PasswordEncoder passwordEncoder;
     private final UserRepository userRepository;
+    private final TokenRevocationService tokenRevocationService;
+    private final RefreshTokenService refreshTokenService;
+    private final JwtKeyRing jwtKeyRing;
+    private final IdempotentRequests idempotentRequests;
 
     AuthController(AuthenticationManager authenticationManager,
             PasswordEncoder passwordEncoder,
             JwtUtils jwtUtils,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            TokenRevocationService tokenRevocationService,
+            RefreshTokenService refreshTokenService,
+            JwtKeyRing jwtKeyRing,
+            IdempotentRequests idempotentRequests) {
         this.authenticationManager = authenticationManager;
         this.jwtUtils = jwtUtils;
         this.passwordEncoder = passwordEncoder;
         this.userRepository = userRepository;
+        this.tokenRevocationService = tokenRevocationService;
+        this.refreshTokenService = refreshTokenService;
+        this.jwtKeyRing = jwtKeyRing;
+        this.idempotentRequests = idempotentRequests;
     }
 
     @PostMapping("/login")
@@ -52,36 +79,110 @@ public class AuthController {
         String jwt = jwtUtils.generateJwtToken(authentication);
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
 
-        boolean isAdmin = false;
-        User user = this.userRepository.findByEmail(userDetails.getUsername()).orElse(null);
-        if (user != null) {
-            isAdmin = user.isAdmin();
-        }
+        // Loaded along with the rest of the principal by UserDetailsServiceImpl
+        boolean isAdmin = Boolean.TRUE.equals(userDetails.getAdmin());
 
-        return ResponseEntity.ok(new JwtResponse(jwt,
+        JwtResponse response = new JwtResponse(jwt,
                 userDetails.getId(),
                 userDetails.getUsername(),
                 userDetails.getFirstName(),
                 userDetails.getLastName(),
-                isAdmin));
+                isAdmin);
+        response.setRefreshToken(refreshTokenService.issue(userDetails.getId()));
+
+        return ResponseEntity.ok(response);
     }
 
-    @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
-        if (userRepository.existsByEmail(signUpRequest.getEmail())) {
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshTokenRequest.getRefreshToken());
+        UserDetailsImpl userDetails = UserDetailsImpl.build(rotation.getUser());
+
+        JwtResponse response = new JwtResponse(jwtUtils.generateJwtToken(userDetails),
+                userDetails.getId(),
+                userDetails.getUsername(),
+                userDetails.getFirstName(),
+                userDetails.getLastName(),
+                Boolean.TRUE.equals(userDetails.getAdmin()));
+        response.setRefreshToken(rotation.getRefreshToken());
+
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) RefreshTokenRequest refreshTokenRequest) {
+        Claims claims = authorization != null && authorization.startsWith("Bearer ")
+                ? jwtUtils.getClaimsFromJwtToken(authorization.substring(7))
+                : null;
+        if (claims == null || claims.getId() == null || claims.getExpiration() == null) {
             return ResponseEntity
                     .badRequest()
-                    .body(new MessageResponse("Error: Email is already taken!"));
+                    .body(new MessageResponse("Error: No revocable token provided!"));
+        }
+
+        // Only revoked once the request is known to be valid, so a 400 never leaves a half logout
+        if (refreshTokenRequest != null && refreshTokenRequest.getRefreshToken() != null) {
+            refreshTokenService.revoke(refreshTokenRequest.getRefreshToken());
+        }
+        tokenRevocationService.revoke(claims.getId(), claims.getExpiration());
+
+        return ResponseEntity.ok(new MessageResponse("User logged out successfully!"));
+    }
+
+    // Lets other services verify our tokens locally; empty while tokens are signed HS512
+    @GetMapping("/jwks")
+    public ResponseEntity<?> jwks() {
+        return ResponseEntity.ok(jwtKeyRing.toJwks());
+    }
+
+    @PostMapping("/register")
+    public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest,
+            @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return register(signUpRequest);
         }
 
-        // Create new user's account
-        User user = new User(signUpRequest.getEmail(),
-                signUpRequest.getLastName(),
-                signUpRequest.getFirstName(),
-                passwordEncoder.encode(signUpRequest.getPassword()),
-                false);
+        // A retried sign-up gets its first answer back without hashing the password again
+        return idempotentRequests.execute(idempotencyKey, fingerprint(signUpRequest), () -> register(signUpRequest));
+    }
+
+    // Every field counts, so a key reused with another name or password is rejected too.
+    // Hashed, so the remembered attempt holds no password.
+    private static String fingerprint(SignupRequest signUpRequest) {
+        StringBuilder fields = new StringBuilder();
+        for (String field : new String[] { signUpRequest.getEmail(), signUpRequest.getFirstName(),
+                signUpRequest.getLastName(), signUpRequest.getPassword() }) {
+            // Length-prefixed, so no two different requests run together into the same text
+            String value = String.valueOf(field);
+            fields.append(value.length()).append(':').append(value);
+        }
 
-        userRepository.save(user);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(fields.toString().getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ResponseEntity<?> register(SignupRequest signUpRequest) {
+        String password = passwordEncoder.encode(signUpRequest.getPassword());
+
+        try {
+            // The unique index on USERS.email is the only check, so two concurrent
+            // sign-ups with the same email cannot both get through
+            userRepository.register(signUpRequest.getEmail(),
+                    signUpRequest.getLastName(),
+                    signUpRequest.getFirstName(),
+                    password,
+                    LocalDateTime.now());
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Email is already taken!"));
+        }
 
         return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
     }
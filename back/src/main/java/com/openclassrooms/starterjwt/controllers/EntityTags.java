@@ -0,0 +1,55 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Validators for conditional GETs, computed from the loaded entity (or the cached
+ * session DTO) so that a 304 can be answered before any serialization.
+ */
+final class EntityTags {
+    private EntityTags() {
+    }
+
+    static String of(SessionDto session) {
+        // Participation changes do not touch SESSIONS.updated_at, so they are part of the tag
+        return "session-" + session.getId() + "-" + lastModified(session.getUpdatedAt())
+                + "-" + Long.toHexString(participantsHash(session.getUsers()));
+    }
+
+    static String of(Teacher teacher) {
+        return "teacher-" + teacher.getId() + "-" + lastModified(teacher.getUpdatedAt());
+    }
+
+    static String of(User user) {
+        return "user-" + user.getId() + "-" + lastModified(user.getUpdatedAt());
+    }
+
+    static long lastModified(LocalDateTime updatedAt) {
+        if (updatedAt == null) {
+            return -1;
+        }
+
+        return updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static long participantsHash(List<Long> userIds) {
+        if (userIds == null) {
+            return 0;
+        }
+
+        // Sorted first, the join table gives no ordering guarantee. A sum of the ids
+        // would give {1, 4} and {2, 3} the same tag.
+        long hash = userIds.size();
+        for (long id : userIds.stream().mapToLong(Long::longValue).sorted().toArray()) {
+            hash = hash * 0x9E3779B97F4A7C15L + id;
+        }
+
+        return hash;
+    }
+}
@@ -0,0 +1,81 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.starterjwt.payload.response.MessageResponse;
+
+/**
+ * Replays the response of a request already handled under the same {@code Idempotency-Key},
+ * so a client retrying after a timeout gets its first answer back instead of redoing the work.
+ * A retry arriving while the first attempt is still running waits for it. Failures that end in
+ * an exception are not remembered, so the client can try again.
+ */
+@Component
+class IdempotentRequests {
+    static final String HEADER = "Idempotency-Key";
+
+    static final int MAX_KEYS = 10_000;
+
+    private final Cache<String, Attempt> attempts;
+
+    IdempotentRequests(@Value("${oc.app.idempotency.ttlMs:600000}") long ttlMs) {
+        this.attempts = Caffeine.newBuilder()
+                .maximumSize(MAX_KEYS)
+                .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * @param fingerprint identifies the request the key was first used for; the same key
+     *                    sent with another fingerprint is rejected with 422
+     */
+    ResponseEntity<?> execute(String key, String fingerprint, Supplier<ResponseEntity<?>> action) {
+        Attempt attempt = new Attempt(fingerprint);
+        Attempt first = attempts.asMap().putIfAbsent(key, attempt);
+
+        if (first != null) {
+            if (!Objects.equals(first.fingerprint, fingerprint)) {
+                return ResponseEntity
+                        .status(HttpStatus.UNPROCESSABLE_ENTITY)
+                        .body(new MessageResponse("Error: Idempotency-Key already used for another request!"));
+            }
+            try {
+                return first.response.join();
+            } catch (CompletionException e) {
+                // The first attempt failed and was forgotten: this retry runs on its own
+                return execute(key, fingerprint, action);
+            }
+        }
+
+        try {
+            ResponseEntity<?> response = action.get();
+            attempt.response.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            attempts.asMap().remove(key, attempt);
+            attempt.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static class Attempt {
+        private final String fingerprint;
+
+        private final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+
+        private Attempt(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
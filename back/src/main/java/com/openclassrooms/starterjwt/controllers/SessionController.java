@@ -2,14 +2,35 @@ package com.openclassrooms.starterjwt.controllers;
 
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.payload.request.BulkParticipationRequest;
+import com.openclassrooms.starterjwt.payload.request.SessionCursor;
+import com.openclassrooms.starterjwt.payload.request.SessionFilter;
+import com.openclassrooms.starterjwt.payload.response.SessionPageResponse;
 import com.openclassrooms.starterjwt.services.SessionService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
 import java.util.List;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -17,36 +38,108 @@ import java.util.List;
 @RequestMapping("/api/session")
 @Log4j2
 public class SessionController {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
     private final SessionMapper sessionMapper;
     private final SessionService sessionService;
+    private final ObjectWriter exportWriter;
 
 
     public SessionController(SessionService sessionService,
-                             SessionMapper sessionMapper) {
+                             SessionMapper sessionMapper,
+                             ObjectMapper objectMapper) {
         this.sessionMapper = sessionMapper;
         this.sessionService = sessionService;
+        this.exportWriter = objectMapper.writerFor(SessionDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> findById(@PathVariable("id") String id) {
-        try {
-            Session session = this.sessionService.getById(Long.valueOf(id));
+    public ResponseEntity<?> findById(@PathVariable("id") String id, WebRequest request) {
+        SessionDto session = this.sessionService.getDtoById(Long.valueOf(id));
 
-            if (session == null) {
-                return ResponseEntity.notFound().build();
-            }
+        if (session == null) {
+            return ResponseEntity.notFound().build();
+        }
 
-            return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
-        } catch (NumberFormatException e) {
-            return ResponseEntity.badRequest().build();
+        String eTag = EntityTags.of(session);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
         }
+
+        return ResponseEntity.ok().eTag(eTag).body(session);
     }
 
+    /**
+     * Sessions dated in [from, to) and/or given by teacherId, page by page: the first page
+     * holds DEFAULT_PAGE_SIZE sessions unless size says otherwise, and a cursor must come with
+     * the filters it was issued for. all=true opts into the former unpaged list, kept for
+     * clients that have not moved to pages yet.
+     */
     @GetMapping()
-    public ResponseEntity<?> findAll() {
-        List<Session> sessions = this.sessionService.findAll();
+    public ResponseEntity<?> findAll(@RequestParam(value = "size", required = false) Integer size,
+                                     @RequestParam(value = "cursor", required = false) String cursor,
+                                     @RequestParam(value = "direction", defaultValue = "asc") String direction,
+                                     @RequestParam(value = "from", required = false) Instant from,
+                                     @RequestParam(value = "to", required = false) Instant to,
+                                     @RequestParam(value = "teacherId", required = false) Long teacherId,
+                                     @RequestParam(value = "all", defaultValue = "false") boolean all) {
+        SessionFilter filter = new SessionFilter(from != null ? Date.from(from) : null,
+                to != null ? Date.from(to) : null,
+                teacherId);
+
+        if (all) {
+            if (size != null || cursor != null) {
+                throw new BadRequestException("all cannot be combined with size or cursor");
+            }
+
+            return ResponseEntity.ok().body(filter.isEmpty()
+                    ? this.sessionService.findAllDtos()
+                    : this.sessionMapper.toDto(this.sessionService.findMatching(filter)));
+        }
+
+        Slice<Session> page = this.sessionService.findPage(filter, SessionCursor.decode(cursor),
+                size != null ? size : DEFAULT_PAGE_SIZE,
+                Sort.Direction.fromOptionalString(direction)
+                        .orElseThrow(() -> new BadRequestException("Invalid direction")));
+
+        List<Session> sessions = page.getContent();
+        String nextCursor = page.hasNext() ? SessionCursor.of(sessions.get(sessions.size() - 1)).encode() : null;
+
+        return ResponseEntity.ok().body(new SessionPageResponse(this.sessionMapper.toDto(sessions), nextCursor));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void export(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        try (JsonGenerator generator = this.exportWriter.getFactory().createGenerator(response.getOutputStream())) {
+            this.sessionService.exportAll(session -> {
+                try {
+                    this.exportWriter.writeValue(generator, session);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
 
-        return ResponseEntity.ok().body(this.sessionMapper.toDto(sessions));
+    @GetMapping("/summary")
+    public ResponseEntity<?> findAllSummaries() {
+        return ResponseEntity.ok().body(this.sessionService.findAllSummaries());
+    }
+
+    @GetMapping("/{id}/summary")
+    public ResponseEntity<?> findSummaryById(@PathVariable("id") String id) {
+        SessionSummaryDto summary = this.sessionService.getSummaryById(Long.valueOf(id));
+
+        if (summary == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok().body(summary);
     }
 
     @PostMapping()
@@ -61,50 +154,40 @@ public class SessionController {
 
     @PutMapping("{id}")
     public ResponseEntity<?> update(@PathVariable("id") String id, @Valid @RequestBody SessionDto sessionDto) {
-        try {
-            Session session = this.sessionService.update(Long.parseLong(id), this.sessionMapper.toEntity(sessionDto));
+        Session session = this.sessionService.update(Long.parseLong(id), this.sessionMapper.toEntity(sessionDto));
 
-            return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
-        } catch (NumberFormatException e) {
-            return ResponseEntity.badRequest().build();
-        }
+        return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
     }
 
     @DeleteMapping("{id}")
     public ResponseEntity<?> save(@PathVariable("id") String id) {
-        try {
-            Session session = this.sessionService.getById(Long.valueOf(id));
+        Session session = this.sessionService.getById(Long.valueOf(id));
 
-            if (session == null) {
-                return ResponseEntity.notFound().build();
-            }
-
-            this.sessionService.delete(Long.parseLong(id));
-            return ResponseEntity.ok().build();
-        } catch (NumberFormatException e) {
-            return ResponseEntity.badRequest().build();
+        if (session == null) {
+            return ResponseEntity.notFound().build();
         }
+
+        this.sessionService.delete(Long.parseLong(id));
+        return ResponseEntity.ok().build();
     }
 
     @PostMapping("{id}/participate/{userId}")
     public ResponseEntity<?> participate(@PathVariable("id") String id, @PathVariable("userId") String userId) {
-        try {
-            this.sessionService.participate(Long.parseLong(id), Long.parseLong(userId));
+        this.sessionService.participate(Long.parseLong(id), Long.parseLong(userId));
 
-            return ResponseEntity.ok().build();
-        } catch (NumberFormatException e) {
-            return ResponseEntity.badRequest().build();
-        }
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("{id}/participate")
+    public ResponseEntity<?> participateAll(@PathVariable("id") String id,
+                                            @Valid @RequestBody BulkParticipationRequest request) {
+        return ResponseEntity.ok().body(this.sessionService.participateAll(Long.parseLong(id), request.getUserIds()));
     }
 
     @DeleteMapping("{id}/participate/{userId}")
     public ResponseEntity<?> noLongerParticipate(@PathVariable("id") String id, @PathVariable("userId") String userId) {
-        try {
-            this.sessionService.noLongerParticipate(Long.parseLong(id), Long.parseLong(userId));
+        this.sessionService.noLongerParticipate(Long.parseLong(id), Long.parseLong(userId));
 
-            return ResponseEntity.ok().build();
-        } catch (NumberFormatException e) {
-            return ResponseEntity.badRequest().build();
-        }
+        return ResponseEntity.ok().build();
     }
 }
@@ -4,8 +4,10 @@ import com.openclassrooms.starterjwt.mapper.TeacherMapper;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.services.TeacherService;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.List;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -23,18 +25,20 @@ public class TeacherController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> findById(@PathVariable("id") String id) {
-        try {
-            Teacher teacher = this.teacherService.findById(Long.valueOf(id));
+    public ResponseEntity<?> findById(@PathVariable("id") String id, WebRequest request) {
+        Teacher teacher = this.teacherService.findById(Long.valueOf(id));
 
-            if (teacher == null) {
-                return ResponseEntity.notFound().build();
-            }
+        if (teacher == null) {
+            return ResponseEntity.notFound().build();
+        }
 
-            return ResponseEntity.ok().body(this.teacherMapper.toDto(teacher));
-        } catch (NumberFormatException e) {
-            return ResponseEntity.badRequest().build();
+        String eTag = EntityTags.of(teacher);
+        long lastModified = EntityTags.lastModified(teacher.getUpdatedAt());
+        if (request.checkNotModified(eTag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).lastModified(lastModified).build();
         }
+
+        return ResponseEntity.ok().eTag(eTag).lastModified(lastModified).body(this.teacherMapper.toDto(teacher));
     }
 
     @GetMapping()
@@ -8,6 +8,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Objects;
 
@@ -26,39 +27,37 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> findById(@PathVariable("id") String id) {
-        try {
-            User user = this.userService.findById(Long.valueOf(id));
+    public ResponseEntity<?> findById(@PathVariable("id") String id, WebRequest request) {
+        User user = this.userService.findById(Long.valueOf(id));
 
-            if (user == null) {
-                return ResponseEntity.notFound().build();
-            }
+        if (user == null) {
+            return ResponseEntity.notFound().build();
+        }
 
-            return ResponseEntity.ok().body(this.userMapper.toDto(user));
-        } catch (NumberFormatException e) {
-            return ResponseEntity.badRequest().build();
+        String eTag = EntityTags.of(user);
+        long lastModified = EntityTags.lastModified(user.getUpdatedAt());
+        if (request.checkNotModified(eTag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).lastModified(lastModified).build();
         }
+
+        return ResponseEntity.ok().eTag(eTag).lastModified(lastModified).body(this.userMapper.toDto(user));
     }
 
     @DeleteMapping("{id}")
     public ResponseEntity<?> save(@PathVariable("id") String id) {
-        try {
-            User user = this.userService.findById(Long.valueOf(id));
-
-            if (user == null) {
-                return ResponseEntity.notFound().build();
-            }
+        User user = this.userService.findById(Long.valueOf(id));
 
-            UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (user == null) {
+            return ResponseEntity.notFound().build();
+        }
 
-            if(!Objects.equals(userDetails.getUsername(), user.getEmail())) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-            }
+        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
-            this.userService.delete(Long.parseLong(id));
-            return ResponseEntity.ok().build();
-        } catch (NumberFormatException e) {
-            return ResponseEntity.badRequest().build();
+        if(!Objects.equals(userDetails.getUsername(), user.getEmail())) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
+
+        this.userService.delete(Long.parseLong(id));
+        return ResponseEntity.ok().build();
     }
 }
@@ -0,0 +1,57 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured pool with one pool for the primary ({@code spring.datasource.*})
+ * and one per URL of {@code oc.app.datasource.replicaUrls}, which share its credentials.
+ * With no replica URL every connection comes from the primary.
+ */
+@Configuration
+public class DataSourceConfig {
+    @Value("${oc.app.datasource.replicaUrls:}")
+    private String[] replicaUrls;
+
+    // How long a replica that refused a connection is left alone
+    @Value("${oc.app.datasource.replicaRetryMs:30000}")
+    private long replicaRetryMs;
+
+    // Short, so a dead replica delays a read by this much before it falls back to the primary
+    @Value("${oc.app.datasource.replicaTimeoutMs:1000}")
+    private long replicaTimeoutMs;
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource routingDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setConnectionTimeout(replicaTimeoutMs);
+            replicas.add(replica);
+        }
+
+        return new ReplicaRoutingDataSource(primary, replicas, replicaRetryMs);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -0,0 +1,107 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out replica connections, round robin, inside {@code @Transactional(readOnly = true)}
+ * and primary connections everywhere else. A replica that fails to give a connection is
+ * skipped for {@code retryMs}; when every replica is skipped reads go to the primary.
+ *
+ * <p>Must be wrapped in a {@link LazyConnectionDataSourceProxy}: the transaction manager
+ * asks for its connection before the transaction is marked read-only.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas = new ArrayList<>();
+
+    private final long retryMs;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, long retryMs) {
+        this.primary = primary;
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Replica("replica-" + i, replicas.get(i)));
+        }
+        this.retryMs = retryMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            Connection connection = replicaConnection();
+            if (connection != null) {
+                return connection;
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // Credentials are per pool, so replicas cannot take them: always the primary
+        return primary.getConnection(username, password);
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable) {
+                ((AutoCloseable) replica.dataSource).close();
+            }
+        }
+        if (primary instanceof AutoCloseable) {
+            ((AutoCloseable) primary).close();
+        }
+    }
+
+    private Connection replicaConnection() {
+        if (replicas.isEmpty()) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.skippedUntil.get() > now) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.skippedUntil.set(now + retryMs);
+                logger.warn("{} skipped for {} ms: {}", replica.name, retryMs, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private static class Replica {
+        private final String name;
+
+        private final DataSource dataSource;
+
+        private final AtomicLong skippedUntil = new AtomicLong();
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.openclassrooms.starterjwt.dto;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+
+/**
+ * One row of the session export: the session columns repeated for each
+ * participant id, or once with a null {@code userId} when nobody attends.
+ */
+public interface SessionParticipantRow {
+    Long getId();
+
+    String getName();
+
+    Date getDate();
+
+    String getDescription();
+
+    Integer getCapacity();
+
+    Long getTeacherId();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    Long getUserId();
+}
@@ -0,0 +1,48 @@
+package com.openclassrooms.starterjwt.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Read model of a session for list and detail views, built straight from a JPQL
+ * constructor projection so that participants are never loaded as {@code User} entities.
+ */
+@Data
+@NoArgsConstructor
+public class SessionSummaryDto {
+    private Long id;
+
+    private String name;
+
+    private Date date;
+
+    private Long teacher_id;
+
+    private String description;
+
+    private Integer participantCount;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<Long> users;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    public SessionSummaryDto(Long id, String name, Date date, String description, Long teacher_id,
+                             Integer participantCount, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.name = name;
+        this.date = date;
+        this.description = description;
+        this.teacher_id = teacher_id;
+        this.participantCount = participantCount;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,21 @@
+package com.openclassrooms.starterjwt.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * An error caused by the request rather than by the server, answered by
+ * {@link RestExceptionHandler}. These are thrown for every unknown id or rejected
+ * enrolment, so they skip filling in a stack trace nobody reads.
+ */
+public abstract class ClientErrorException extends RuntimeException {
+    private final HttpStatus status;
+
+    protected ClientErrorException(HttpStatus status, String message) {
+        super(message, null, false, false);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
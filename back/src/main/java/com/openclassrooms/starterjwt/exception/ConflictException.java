@@ -0,0 +1,9 @@
+package com.openclassrooms.starterjwt.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ConflictException extends ClientErrorException {
+    public ConflictException() {
+        super(HttpStatus.CONFLICT, null);
+    }
+}
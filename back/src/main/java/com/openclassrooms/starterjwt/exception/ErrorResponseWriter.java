@@ -0,0 +1,67 @@
+package com.openclassrooms.starterjwt.exception;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.starterjwt.payload.response.ErrorResponse;
+
+/**
+ * Serializes error bodies once. Errors repeat a handful of messages on a handful of paths,
+ * a burst of failed logins being the same 401 on /api/auth/login over and over, so the
+ * bytes of each distinct body are kept and written as is.
+ */
+@Component
+public class ErrorResponseWriter {
+  static final int MAX_CACHED_BODIES = 1_024;
+
+  private final ObjectWriter writer;
+
+  private final Cache<ErrorResponse, byte[]> bodies = Caffeine.newBuilder()
+      .maximumSize(MAX_CACHED_BODIES)
+      .build();
+
+  public ErrorResponseWriter(ObjectMapper objectMapper) {
+    this.writer = objectMapper.writerFor(ErrorResponse.class);
+  }
+
+  public byte[] body(HttpStatus status, String message, String path) {
+    return bodies.get(new ErrorResponse(status.value(), status.getReasonPhrase(), message, path), this::serialize);
+  }
+
+  public ResponseEntity<byte[]> toResponseEntity(HttpStatus status, String message, String path) {
+    return ResponseEntity
+        .status(status)
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(body(status, message, path));
+  }
+
+  public void write(HttpServletResponse response, HttpStatus status, String message, String path) throws IOException {
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.setStatus(status.value());
+
+    byte[] body = body(status, message, path);
+    response.setContentLength(body.length);
+    response.getOutputStream().write(body);
+  }
+
+  private byte[] serialize(ErrorResponse errorResponse) {
+    try {
+      return writer.writeValueAsBytes(errorResponse);
+    } catch (JsonProcessingException e) {
+      // Four plain fields, Jackson cannot fail on them
+      throw new UncheckedIOException(e);
+    }
+  }
+}
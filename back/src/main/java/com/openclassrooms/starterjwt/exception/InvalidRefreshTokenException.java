@@ -0,0 +1,9 @@
+package com.openclassrooms.starterjwt.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidRefreshTokenException extends ClientErrorException {
+    public InvalidRefreshTokenException() {
+        super(HttpStatus.UNAUTHORIZED, "Refresh token is invalid or expired");
+    }
+}
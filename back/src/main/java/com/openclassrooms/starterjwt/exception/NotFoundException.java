@@ -1,8 +1,9 @@
 package com.openclassrooms.starterjwt.exception;
 
 import org.springframework.http.HttpStatus;
-import org.springframework.web.bind.annotation.ResponseStatus;
 
-@ResponseStatus(value= HttpStatus.NOT_FOUND)
-public class NotFoundException extends RuntimeException {
+public class NotFoundException extends ClientErrorException {
+    public NotFoundException() {
+        super(HttpStatus.NOT_FOUND, null);
+    }
 }
@@ -0,0 +1,15 @@
+package com.openclassrooms.starterjwt.exception;
+
+public class PasswordHashingBusyException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public PasswordHashingBusyException(long retryAfterSeconds) {
+        // Thrown by the hundred under load, the stack trace would only add to it
+        super("Password hashing queue is full", null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
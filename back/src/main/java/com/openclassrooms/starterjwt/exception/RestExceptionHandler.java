@@ -0,0 +1,80 @@
+package com.openclassrooms.starterjwt.exception;
+
+import java.util.stream.Collectors;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+
+/**
+ * Answers expected client errors directly with a JSON body, instead of letting them
+ * reach the servlet container and be forwarded to the /error page.
+ */
+@RestControllerAdvice
+public class RestExceptionHandler {
+    private final ErrorResponseWriter errorResponseWriter;
+
+    public RestExceptionHandler(ErrorResponseWriter errorResponseWriter) {
+        this.errorResponseWriter = errorResponseWriter;
+    }
+
+    @ExceptionHandler(ClientErrorException.class)
+    public ResponseEntity<byte[]> clientError(ClientErrorException e, HttpServletRequest request) {
+        return errorResponseWriter.toResponseEntity(e.getStatus(), e.getMessage(), request.getRequestURI());
+    }
+
+    // Also matched as the cause when Spring Security wraps it while checking an unknown email
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<byte[]> passwordHashingBusy(PasswordHashingBusyException e, HttpServletRequest request) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorResponseWriter.body(HttpStatus.SERVICE_UNAVAILABLE,
+                        "Too many authentication requests, please retry later", request.getRequestURI()));
+    }
+
+    // Path variables that are not numbers; the input itself is not echoed back
+    @ExceptionHandler(NumberFormatException.class)
+    public ResponseEntity<byte[]> invalidIdentifier(HttpServletRequest request) {
+        return errorResponseWriter.toResponseEntity(HttpStatus.BAD_REQUEST, "Invalid identifier", request.getRequestURI());
+    }
+
+    // Same for other parameters that do not convert, such as dates, named instead
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<byte[]> invalidArgument(MethodArgumentTypeMismatchException e, HttpServletRequest request) {
+        if (e.getRequiredType() != null && Number.class.isAssignableFrom(e.getRequiredType())) {
+            return invalidIdentifier(request);
+        }
+
+        return errorResponseWriter.toResponseEntity(HttpStatus.BAD_REQUEST, "Invalid parameter: " + e.getName(),
+                request.getRequestURI());
+    }
+
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<byte[]> invalidBody(MethodArgumentNotValidException e, HttpServletRequest request) {
+        String fields = e.getBindingResult().getFieldErrors().stream()
+                .map(FieldError::getField)
+                .distinct()
+                .sorted()
+                .collect(Collectors.joining(", "));
+
+        return errorResponseWriter.toResponseEntity(HttpStatus.BAD_REQUEST,
+                fields.isEmpty() ? "Invalid request" : "Invalid fields: " + fields,
+                request.getRequestURI());
+    }
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<byte[]> unreadableBody(HttpServletRequest request) {
+        return errorResponseWriter.toResponseEntity(HttpStatus.BAD_REQUEST, "Malformed request body", request.getRequestURI());
+    }
+}
@@ -0,0 +1,83 @@
+package com.openclassrooms.starterjwt.mapper;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.services.TeacherService;
+import com.openclassrooms.starterjwt.services.UserService;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Teachers and users referenced by a batch of {@link SessionDto}, each distinct id
+ * looked up once whatever the number of DTOs, from the second-level cache when it is there.
+ */
+class SessionReferences {
+    private final Map<Long, Teacher> teachers;
+
+    private final Map<Long, User> users;
+
+    private SessionReferences(Map<Long, Teacher> teachers, Map<Long, User> users) {
+        this.teachers = teachers;
+        this.users = users;
+    }
+
+    /**
+     * @throws BadRequestException for a null user id, or naming the ids that match no teacher or user
+     */
+    static SessionReferences resolve(List<SessionDto> sessionDtos, TeacherService teacherService,
+                                     UserService userService) {
+        Set<Long> teacherIds = new TreeSet<>();
+        Set<Long> userIds = new TreeSet<>();
+        for (SessionDto sessionDto : sessionDtos) {
+            if (sessionDto.getTeacher_id() != null) {
+                teacherIds.add(sessionDto.getTeacher_id());
+            }
+            if (sessionDto.getUsers() != null) {
+                // Not contains(null), which immutable lists answer with a NullPointerException
+                if (sessionDto.getUsers().stream().anyMatch(Objects::isNull)) {
+                    throw new BadRequestException("User ids cannot be null");
+                }
+                userIds.addAll(sessionDto.getUsers());
+            }
+        }
+
+        Map<Long, Teacher> teachers = new HashMap<>();
+        if (!teacherIds.isEmpty()) {
+            teacherService.findAllById(teacherIds).forEach(teacher -> teachers.put(teacher.getId(), teacher));
+        }
+        Map<Long, User> users = new HashMap<>();
+        if (!userIds.isEmpty()) {
+            userService.findAllById(userIds).forEach(user -> users.put(user.getId(), user));
+        }
+
+        teacherIds.removeAll(teachers.keySet());
+        userIds.removeAll(users.keySet());
+        if (!teacherIds.isEmpty() || !userIds.isEmpty()) {
+            throw new BadRequestException("Unknown teacher ids " + teacherIds + ", unknown user ids " + userIds);
+        }
+
+        return new SessionReferences(teachers, users);
+    }
+
+    Teacher teacher(Long id) {
+        return id != null ? this.teachers.get(id) : null;
+    }
+
+    List<User> users(List<Long> ids) {
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+
+        // A user listed twice would be inserted twice into PARTICIPATE
+        return ids.stream().distinct().map(this.users::get).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,43 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import javax.persistence.*;
+import java.util.Date;
+
+@Entity
+@Table(name = "REFRESH_TOKENS", indexes = {
+        @Index(name = "idx_refresh_tokens_family", columnList = "family"),
+        @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at")
+})
+@Data
+@Accessors(chain = true)
+@EqualsAndHashCode(of = {"id"})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // SHA-256 of the opaque token handed to the client, never the token itself
+    @Column(name = "token_hash", length = 44, nullable = false, unique = true)
+    private String tokenHash;
+
+    // Every token obtained by rotation from the same login shares the family
+    @Column(length = 36, nullable = false)
+    private String family;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "expires_at", nullable = false)
+    private Date expiresAt;
+
+    // Already exchanged for a new token: presenting it again means it leaked
+    @Column(nullable = false)
+    private boolean used;
+}
@@ -0,0 +1,28 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import javax.persistence.*;
+import java.util.Date;
+
+@Entity
+@Table(name = "REVOKED_TOKENS", indexes = {
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at")
+})
+@Data
+@Accessors(chain = true)
+@EqualsAndHashCode(of = {"jti"})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class RevokedToken {
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    // Past this date the token is rejected as expired anyway, so the row can go
+    @Column(name = "expires_at", nullable = false)
+    private Date expiresAt;
+}
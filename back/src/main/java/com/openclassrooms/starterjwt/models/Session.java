@@ -3,11 +3,13 @@ package com.openclassrooms.starterjwt.models;
 
 import lombok.*;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.*;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
@@ -16,7 +18,14 @@ import java.util.Date;
 import java.util.List;
 
 @Entity
-@Table(name = "SESSIONS")
+@Table(name = "SESSIONS", indexes = {
+        @Index(name = "idx_sessions_date", columnList = "date"),
+        @Index(name = "idx_sessions_teacher_id_date", columnList = "teacher_id, date")
+})
+@NamedEntityGraph(name = Session.WITH_PARTICIPANTS, attributeNodes = {
+        @NamedAttributeNode("teacher"),
+        @NamedAttributeNode("users")
+})
 @EntityListeners(AuditingEntityListener.class)
 @Data
 @Accessors(chain = true)
@@ -26,8 +35,14 @@ import java.util.List;
 @AllArgsConstructor
 @ToString
 public class Session {
+    public static final String WITH_PARTICIPANTS = "Session.withParticipants";
+
+    // Ids come from ID_GENERATORS in blocks, so inserts can be batched; IDENTITY would
+    // need the generated key of every row before the next one is sent
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "sessions")
+    @TableGenerator(name = "sessions", table = "ID_GENERATORS", pkColumnName = "name",
+            valueColumnName = "next_val", pkColumnValue = "SESSIONS", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -41,11 +56,24 @@ public class Session {
     @Size(max = 2500)
     private String description;
 
+    // No limit when null
+    @Min(1)
+    private Integer capacity;
+
+    // Written only by the seat statements of SessionRepository, never through the entity
+    @Column(name = "seats_taken", insertable = false, updatable = false,
+            columnDefinition = "INT NOT NULL DEFAULT 0")
+    private Integer seatsTaken;
+
     @OneToOne
     @JoinColumn(name = "teacher_id", referencedColumnName = "id")
     private Teacher teacher;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    // Loaded on demand through the WITH_PARTICIPANTS graph; pages of sessions initialize
+    // their participant lists in a single batch when they are accessed
+    @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
+    @ToString.Exclude
     @JoinTable(
             name = "PARTICIPATE",
             joinColumns = @JoinColumn( name = "session_id" ),
@@ -2,6 +2,8 @@ package com.openclassrooms.starterjwt.models;
 
 import lombok.*;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -13,6 +15,9 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "TEACHERS")
+// Reference data read by every session form and session write; see application.conf for eviction
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Teacher.CACHE_REGION)
 @EntityListeners(AuditingEntityListener.class)
 @Data
 @Accessors(chain = true)
@@ -22,8 +27,13 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @ToString
 public class Teacher {
+    public static final String CACHE_REGION = "teachers";
+
+    // Allocated in blocks like the ids of Session
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "teachers")
+    @TableGenerator(name = "teachers", table = "ID_GENERATORS", pkColumnName = "name",
+            valueColumnName = "next_val", pkColumnValue = "TEACHERS", allocationSize = 50)
     private Long id;
 
     @NotBlank
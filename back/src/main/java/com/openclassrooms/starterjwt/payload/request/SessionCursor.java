@@ -0,0 +1,51 @@
+package com.openclassrooms.starterjwt.payload.request;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.models.Session;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Keyset position in the session listing, ordered on (date, id).
+ * Exposed to clients as an opaque url-safe token.
+ */
+@Getter
+@AllArgsConstructor
+public class SessionCursor {
+    private static final String SEPARATOR = ":";
+
+    private final Date date;
+
+    private final Long id;
+
+    public static SessionCursor of(Session session) {
+        return new SessionCursor(session.getDate(), session.getId());
+    }
+
+    public static SessionCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(SEPARATOR);
+            if (parts.length == 2) {
+                return new SessionCursor(new Date(Long.parseLong(parts[0])), Long.parseLong(parts[1]));
+            }
+        } catch (IllegalArgumentException e) {
+            // Not base64, or not numbers: same answer as a wrong number of parts
+        }
+
+        throw new BadRequestException("Invalid cursor");
+    }
+
+    public String encode() {
+        String raw = this.date.getTime() + SEPARATOR + this.id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,26 @@
+package com.openclassrooms.starterjwt.payload.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * Optional restrictions on the session listing: sessions dated in [from, to)
+ * and given by one teacher. Any of them may be null.
+ */
+@Getter
+@AllArgsConstructor
+public class SessionFilter {
+    public static final SessionFilter NONE = new SessionFilter(null, null, null);
+
+    private final Date from;
+
+    private final Date to;
+
+    private final Long teacherId;
+
+    public boolean isEmpty() {
+        return this.from == null && this.to == null && this.teacherId == null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class BulkParticipationResponse {
+  private List<Long> added;
+
+  private List<Long> duplicate;
+
+  private List<Long> unknown;
+
+  // Valid users left out because the session ran out of seats
+  private List<Long> full;
+}
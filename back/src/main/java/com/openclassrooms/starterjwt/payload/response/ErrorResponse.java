@@ -0,0 +1,11 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+import lombok.Value;
+
+@Value
+public class ErrorResponse {
+  int status;
+  String error;
+  String message;
+  String path;
+}
@@ -15,6 +15,9 @@ public class JwtResponse {
 
   private Boolean admin;
 
+  // Opaque and single use, exchanged at /api/auth/refresh for a new access token
+  private String refreshToken;
+
   public JwtResponse(String accessToken, Long id, String username,String firstName, String lastName, Boolean admin) {
     this.token = accessToken;
     this.id = id;
@@ -0,0 +1,15 @@
+package com.openclassrooms.starterjwt.payload.response;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class SessionPageResponse {
+  private List<SessionDto> items;
+
+  private String nextCursor;
+}
@@ -0,0 +1,29 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    // Not read-only, so it is answered by the primary: a lagging replica would
+    // still accept a token that was just revoked
+    @Override
+    @Transactional
+    boolean existsById(String jti);
+
+    @Query("select r.jti from RevokedToken r where r.expiresAt > :now")
+    List<String> findActiveJtis(@Param("now") Date now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RevokedToken r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Date now);
+}
@@ -1,9 +1,128 @@
 package com.openclassrooms.starterjwt.repository;
 
+import com.openclassrooms.starterjwt.dto.SessionParticipantRow;
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
 import com.openclassrooms.starterjwt.models.Session;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
-public interface SessionRepository  extends JpaRepository<Session, Long> {
+public interface SessionRepository  extends JpaRepository<Session, Long>, SessionRepositoryCustom {
+    // Tables written by the native statements below. Without them Hibernate cannot tell what
+    // a native update touches and empties every second-level cache region and the query cache.
+    String PARTICIPATE = "PARTICIPATE";
+    String SESSIONS = "SESSIONS";
+
+    String SELECT_SUMMARY = "select new com.openclassrooms.starterjwt.dto.SessionSummaryDto("
+            + "s.id, s.name, s.date, s.description, t.id, size(s.users), s.createdAt, s.updatedAt) "
+            + "from Session s left join s.teacher t ";
+
+    @EntityGraph(Session.WITH_PARTICIPANTS)
+    @Query("select distinct s from Session s")
+    List<Session> findAllWithParticipants();
+
+    @EntityGraph(Session.WITH_PARTICIPANTS)
+    Optional<Session> findWithParticipantsById(Long id);
+
+    @Query(SELECT_SUMMARY + "order by s.date, s.id")
+    List<SessionSummaryDto> findAllSummaries();
+
+    @Query(SELECT_SUMMARY + "where s.id = :id")
+    Optional<SessionSummaryDto> findSummaryById(@Param("id") Long id);
+
+    @Query("select u.id from Session s join s.users u where s.id = :id order by u.id")
+    List<Long> findParticipantIds(@Param("id") Long id);
+
+    @Query("select u.id from Session s join s.users u where s.id = :id and u.id in :userIds")
+    List<Long> findParticipantIdsAmong(@Param("id") Long id, @Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Reads the session under a row lock, the same one {@link #takeSeat(Long)} takes,
+     * so seat counts and participants cannot change until the transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from Session s where s.id = :id")
+    Optional<Session> findForUpdateById(@Param("id") Long id);
+
+    /**
+     * Scalar rows ordered by session id, read through a JDBC cursor: nothing is
+     * attached to the persistence context, so memory stays flat whatever the table size.
+     * Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select s.id as id, s.name as name, s.date as date, s.description as description, "
+            + "s.capacity as capacity, t.id as teacherId, s.createdAt as createdAt, s.updatedAt as updatedAt, u.id as userId "
+            + "from Session s left join s.teacher t left join s.users u order by s.id, u.id")
+    Stream<SessionParticipantRow> streamAllWithParticipantIds();
+
+    /**
+     * Enrols a user with a single statement. Returns 0 when the session or the user
+     * does not exist, or when the user already participates.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES, value = PARTICIPATE))
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO PARTICIPATE (session_id, user_id) "
+            + "SELECT s.id, u.id FROM SESSIONS s, USERS u WHERE s.id = :id AND u.id = :userId "
+            + "AND NOT EXISTS (SELECT 1 FROM PARTICIPATE p WHERE p.session_id = :id AND p.user_id = :userId)",
+            nativeQuery = true)
+    int addParticipant(@Param("id") Long id, @Param("userId") Long userId);
+
+    /**
+     * Withdraws a user with a single statement. Returns 0 when there was nothing to remove.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES, value = PARTICIPATE))
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM PARTICIPATE WHERE session_id = :id AND user_id = :userId", nativeQuery = true)
+    int removeParticipant(@Param("id") Long id, @Param("userId") Long userId);
+
+    /**
+     * Takes one seat if the session has room left. The row lock taken here serializes
+     * concurrent enrolments on the same session until the transaction ends.
+     * Returns 0 when the session is full or does not exist.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES, value = SESSIONS))
+    @Modifying
+    @Query(value = "UPDATE SESSIONS SET seats_taken = seats_taken + 1 "
+            + "WHERE id = :id AND (capacity IS NULL OR seats_taken < capacity)", nativeQuery = true)
+    int takeSeat(@Param("id") Long id);
+
+    /**
+     * Gives one seat back. Returns 0 when the session does not exist.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES, value = SESSIONS))
+    @Modifying
+    @Query(value = "UPDATE SESSIONS SET seats_taken = GREATEST(seats_taken - 1, 0) WHERE id = :id",
+            nativeQuery = true)
+    int releaseSeat(@Param("id") Long id);
+
+    /**
+     * Resynchronizes the seat counter after the participant list or the capacity was written
+     * through the entity. Returns 0, leaving the counter alone, when the session does not exist
+     * or now has more participants than its capacity.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES, value = SESSIONS))
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE SESSIONS SET seats_taken = "
+            + "(SELECT COUNT(*) FROM PARTICIPATE p WHERE p.session_id = :id) WHERE id = :id "
+            + "AND (capacity IS NULL OR (SELECT COUNT(*) FROM PARTICIPATE p WHERE p.session_id = :id) <= capacity)",
+            nativeQuery = true)
+    int recountSeats(@Param("id") Long id);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES, value = SESSIONS))
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE SESSIONS SET seats_taken = seats_taken + :count WHERE id = :id", nativeQuery = true)
+    int takeSeats(@Param("id") Long id, @Param("count") int count);
 }
@@ -0,0 +1,30 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.payload.request.SessionCursor;
+import com.openclassrooms.starterjwt.payload.request.SessionFilter;
+import org.springframework.data.domain.Sort;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface SessionRepositoryCustom {
+    /**
+     * Keyset page ordered on (date, id): returns at most {@code limit} sessions matching
+     * {@code filter} strictly after {@code cursor} in the given direction, or the first
+     * ones when {@code cursor} is null.
+     */
+    List<Session> findPage(SessionFilter filter, SessionCursor cursor, Sort.Direction direction, int limit);
+
+    /**
+     * Every session matching {@code filter} ordered on (date, id), with its teacher
+     * and participants, in a single query.
+     */
+    List<Session> findMatching(SessionFilter filter);
+
+    /**
+     * Inserts the PARTICIPATE rows for {@code userIds} in one JDBC batch. Callers are
+     * expected to have filtered out duplicates and unknown users beforehand.
+     */
+    void addParticipants(Long id, Collection<Long> userIds);
+}
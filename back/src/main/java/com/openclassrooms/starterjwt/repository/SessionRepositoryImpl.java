@@ -0,0 +1,111 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.payload.request.SessionCursor;
+import com.openclassrooms.starterjwt.payload.request.SessionFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph.EntityGraphType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public class SessionRepositoryImpl implements SessionRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Session> findPage(SessionFilter filter, SessionCursor cursor, Sort.Direction direction, int limit) {
+        CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<Session> query = cb.createQuery(Session.class);
+        Root<Session> session = query.from(Session.class);
+        session.fetch("teacher", JoinType.LEFT);
+        Path<Date> date = session.get("date");
+        Path<Long> id = session.get("id");
+
+        List<Predicate> predicates = matching(cb, session, filter);
+        if (cursor != null) {
+            predicates.add(after(cb, date, id, cursor, direction));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+
+        if (direction.isAscending()) {
+            query.orderBy(cb.asc(date), cb.asc(id));
+        } else {
+            query.orderBy(cb.desc(date), cb.desc(id));
+        }
+
+        return this.entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<Session> findMatching(SessionFilter filter) {
+        CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<Session> query = cb.createQuery(Session.class);
+        Root<Session> session = query.from(Session.class);
+
+        query.distinct(true)
+                .where(matching(cb, session, filter).toArray(new Predicate[0]))
+                .orderBy(cb.asc(session.get("date")), cb.asc(session.get("id")));
+
+        return this.entityManager.createQuery(query)
+                .setHint(EntityGraphType.FETCH.getKey(), this.entityManager.getEntityGraph(Session.WITH_PARTICIPANTS))
+                .getResultList();
+    }
+
+    @Override
+    public void addParticipants(Long id, Collection<Long> userIds) {
+        List<Object[]> rows = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            rows.add(new Object[]{id, userId});
+        }
+
+        this.jdbcTemplate.batchUpdate("INSERT INTO PARTICIPATE (session_id, user_id) VALUES (?, ?)", rows);
+    }
+
+    // Served by the (date) and (teacher_id, date) indexes of SESSIONS
+    private List<Predicate> matching(CriteriaBuilder cb, Root<Session> session, SessionFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        Path<Date> date = session.get("date");
+        if (filter.getFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(date, filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            predicates.add(cb.lessThan(date, filter.getTo()));
+        }
+        if (filter.getTeacherId() != null) {
+            predicates.add(cb.equal(session.get("teacher").get("id"), filter.getTeacherId()));
+        }
+
+        return predicates;
+    }
+
+    private Predicate after(CriteriaBuilder cb, Path<Date> date, Path<Long> id, SessionCursor cursor,
+                            Sort.Direction direction) {
+        if (direction.isAscending()) {
+            return cb.or(
+                    cb.greaterThan(date, cursor.getDate()),
+                    cb.and(cb.equal(date, cursor.getDate()), cb.greaterThan(id, cursor.getId())));
+        }
+
+        return cb.or(
+                cb.lessThan(date, cursor.getDate()),
+                cb.and(cb.equal(date, cursor.getDate()), cb.lessThan(id, cursor.getId())));
+    }
+}
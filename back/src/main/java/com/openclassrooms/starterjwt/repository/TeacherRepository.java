@@ -2,8 +2,16 @@ package com.openclassrooms.starterjwt.repository;
 
 import com.openclassrooms.starterjwt.models.Teacher;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+
 @Repository
 public interface TeacherRepository  extends JpaRepository<Teacher, Long> {
+    // Kept in the query cache until a teacher is written, the rows themselves in the teachers region
+    @Override
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    List<Teacher> findAll();
 }
@@ -1,9 +1,17 @@
 package com.openclassrooms.starterjwt.repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
+import javax.persistence.QueryHint;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.openclassrooms.starterjwt.models.User;
 
@@ -11,5 +19,20 @@ import com.openclassrooms.starterjwt.models.User;
 public interface UserRepository extends JpaRepository<User, Long> {
   Optional<User> findByEmail(String email);
 
-  Boolean existsByEmail(String email); 
+  /**
+   * Creates an account with a single statement, leaving the unique index on email to reject
+   * duplicates with a DataIntegrityViolationException. Nothing enters the persistence context,
+   * so a rejected insert does not leave a half-saved entity behind in the caller's session.
+   * USERS is declared as the table written, or Hibernate would empty every cache region.
+   */
+  @Transactional
+  @Modifying
+  @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_NATIVE_SPACES, value = "USERS"))
+  @Query(value = "INSERT INTO USERS (email, last_name, first_name, password, admin, created_at, updated_at) "
+      + "VALUES (:email, :lastName, :firstName, :password, false, :now, :now)", nativeQuery = true)
+  int register(@Param("email") String email,
+      @Param("lastName") String lastName,
+      @Param("firstName") String firstName,
+      @Param("password") String password,
+      @Param("now") LocalDateTime now);
 }
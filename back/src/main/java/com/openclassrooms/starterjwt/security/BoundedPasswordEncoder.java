@@ -0,0 +1,116 @@
+package com.openclassrooms.starterjwt.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.openclassrooms.starterjwt.exception.PasswordHashingBusyException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Runs the CPU-bound work of a delegate encoder (BCrypt) on a small dedicated pool,
+ * so a login spike cannot take every request thread. Once the pool and its queue
+ * are full, callers get a {@link PasswordHashingBusyException} right away instead of
+ * waiting.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+  private final PasswordEncoder delegate;
+
+  private final ThreadPoolExecutor executor;
+
+  private final long retryAfterSeconds;
+
+  private final Timer encodeTimer;
+
+  private final Timer matchesTimer;
+
+  private final Counter rejected;
+
+  public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long retryAfterSeconds,
+      MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.retryAfterSeconds = retryAfterSeconds;
+
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        runnable -> {
+          Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+
+    Gauge.builder("auth.password.queue.depth", executor, pool -> pool.getQueue().size())
+        .description("Password hashing requests waiting for a thread")
+        .register(meterRegistry);
+    Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+        .description("Password hashing threads busy")
+        .register(meterRegistry);
+    this.encodeTimer = Timer.builder("auth.password.hash")
+        .tag("operation", "encode")
+        .description("Time spent hashing, excluding the queue wait")
+        .register(meterRegistry);
+    this.matchesTimer = Timer.builder("auth.password.hash")
+        .tag("operation", "matches")
+        .description("Time spent hashing, excluding the queue wait")
+        .register(meterRegistry);
+    this.rejected = Counter.builder("auth.password.rejected")
+        .description("Password hashing requests refused because the queue was full")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return submit(() -> encodeTimer.recordCallable(() -> delegate.encode(rawPassword)));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return submit(() -> matchesTimer.recordCallable(() -> delegate.matches(rawPassword, encodedPassword)));
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  // Called by Spring as the inferred destroy method of the bean
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  private <T> T submit(Callable<T> task) {
+    Future<T> future;
+    try {
+      future = executor.submit(task);
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      throw new PasswordHashingBusyException(retryAfterSeconds);
+    }
+
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while hashing password", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package com.openclassrooms.starterjwt.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -18,6 +19,8 @@ import com.openclassrooms.starterjwt.security.jwt.AuthEntryPointJwt;
 import com.openclassrooms.starterjwt.security.jwt.AuthTokenFilter;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 @EnableWebSecurity
 @EnableGlobalMethodSecurity(
@@ -31,6 +34,19 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
   @Autowired
   private AuthEntryPointJwt unauthorizedHandler;
 
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  // 0 means one thread per available processor
+  @Value("${oc.app.passwordHashing.threads:0}")
+  private int passwordHashingThreads;
+
+  @Value("${oc.app.passwordHashing.queueCapacity:64}")
+  private int passwordHashingQueueCapacity;
+
+  @Value("${oc.app.passwordHashing.retryAfterSeconds:1}")
+  private long passwordHashingRetryAfterSeconds;
+
   @Bean
   public AuthTokenFilter authenticationJwtTokenFilter() {
     return new AuthTokenFilter();
@@ -49,7 +65,9 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
 
   @Bean
   public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+    int threads = passwordHashingThreads > 0 ? passwordHashingThreads : Runtime.getRuntime().availableProcessors();
+    return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), threads, passwordHashingQueueCapacity,
+        passwordHashingRetryAfterSeconds, meterRegistry);
   }
 
   @Override
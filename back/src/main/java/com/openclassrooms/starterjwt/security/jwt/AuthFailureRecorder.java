@@ -0,0 +1,83 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Counts authentication failures by cause ({@code auth.failures} tagged with {@code cause})
+ * and logs at most one line per cause every {@code oc.app.securityLog.intervalMs}, with the
+ * number of failures left unlogged since the previous line. A flood of bad tokens then
+ * moves the counters, not the amount of log I/O.
+ */
+@Component
+public class AuthFailureRecorder {
+  private static final Logger logger = LoggerFactory.getLogger(AuthFailureRecorder.class);
+
+  public enum Cause {
+    EMPTY,
+    EXPIRED,
+    BAD_SIGNATURE,
+    MALFORMED,
+    UNSUPPORTED,
+    REVOKED,
+    UNKNOWN_USER,
+    UNAUTHORIZED,
+    // Anything unexpected while authenticating, logged at ERROR
+    ERROR
+  }
+
+  private final long intervalMs;
+
+  private final Map<Cause, Counter> counters = new EnumMap<>(Cause.class);
+
+  private final Map<Cause, AtomicLong> nextLogAt = new EnumMap<>(Cause.class);
+
+  private final Map<Cause, AtomicLong> suppressed = new EnumMap<>(Cause.class);
+
+  public AuthFailureRecorder(MeterRegistry meterRegistry,
+      @Value("${oc.app.securityLog.intervalMs:10000}") long intervalMs) {
+    this.intervalMs = intervalMs;
+    for (Cause cause : Cause.values()) {
+      counters.put(cause, Counter.builder("auth.failures")
+          .description("Rejected authentication attempts")
+          .tag("cause", cause.name().toLowerCase(Locale.ROOT))
+          .register(meterRegistry));
+      nextLogAt.put(cause, new AtomicLong());
+      suppressed.put(cause, new AtomicLong());
+    }
+  }
+
+  public void record(Cause cause, String detail) {
+    record(cause, detail, null);
+  }
+
+  public void record(Cause cause, String detail, Throwable error) {
+    counters.get(cause).increment();
+
+    long now = System.currentTimeMillis();
+    AtomicLong next = nextLogAt.get(cause);
+    long logAt = next.get();
+    // One thread per interval wins the right to log, the others only count
+    if (now < logAt || !next.compareAndSet(logAt, now + intervalMs)) {
+      suppressed.get(cause).incrementAndGet();
+      return;
+    }
+
+    long skipped = suppressed.get(cause).getAndSet(0);
+    if (cause == Cause.ERROR) {
+      logger.error("Authentication failure ({}): {}, {} similar not logged", cause, detail, skipped, error);
+    } else {
+      logger.warn("Authentication failure ({}): {}, {} similar not logged", cause, detail, skipped);
+    }
+  }
+}
@@ -7,18 +7,21 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.openclassrooms.starterjwt.security.services.TokenRevocationService;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 
+import io.jsonwebtoken.Claims;
+
 public class AuthTokenFilter extends OncePerRequestFilter {
   @Autowired
   private JwtUtils jwtUtils;
@@ -26,7 +29,15 @@ public class AuthTokenFilter extends OncePerRequestFilter {
   @Autowired
   private UserDetailsServiceImpl userDetailsService;
 
-  private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
+  @Autowired
+  private TokenRevocationService tokenRevocationService;
+
+  @Autowired
+  private AuthFailureRecorder authFailures;
+
+  // When on, recent tokens authenticate from their claims without touching the database
+  @Value("${oc.app.jwtStatelessPrincipal:false}")
+  private boolean statelessPrincipal;
 
   @SuppressWarnings("null")
   @Override
@@ -35,10 +46,15 @@ public class AuthTokenFilter extends OncePerRequestFilter {
       throws ServletException, IOException {
     try {
       String jwt = parseJwt(request);
-      if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
+      Claims claims = jwt != null ? jwtUtils.getClaimsFromJwtToken(jwt) : null;
+      if (claims != null && tokenRevocationService.isRevoked(claims.getId())) {
+        authFailures.record(AuthFailureRecorder.Cause.REVOKED, "JWT token is revoked");
+      } else if (claims != null) {
+        UserDetails userDetails = statelessPrincipal ? jwtUtils.getPrincipalFromClaims(claims) : null;
+        if (userDetails == null) {
+          userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+        }
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
         UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
             userDetails,
             null,
@@ -47,8 +63,10 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
       }
+    } catch (UsernameNotFoundException e) {
+      authFailures.record(AuthFailureRecorder.Cause.UNKNOWN_USER, e.getMessage());
     } catch (Exception e) {
-      logger.error("Cannot set user authentication: {}", e);
+      authFailures.record(AuthFailureRecorder.Cause.ERROR, "Cannot set user authentication", e);
     }
 
     filterChain.doFilter(request, response);
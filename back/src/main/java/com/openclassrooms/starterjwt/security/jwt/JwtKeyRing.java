@@ -0,0 +1,249 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Asymmetric signing keys, read from {@code oc.app.jwt.keyDir} and selected by {@code kid}.
+ * Each key is a {@code <kid>.pub} X.509 PEM public key, plus a {@code <kid>.key} PKCS#8 PEM
+ * private key when this service signs with it. RSA keys sign RS256, P-256 keys ES256.
+ *
+ * <p>The directory is read again every {@code oc.app.jwt.keyReloadMs}, so keys rotate without
+ * a restart: publish the new {@code .pub} on every instance first, then its {@code .key}, and
+ * delete the old {@code .key} (keeping its {@code .pub} until its tokens have expired). Unless
+ * {@code oc.app.jwt.activeKid} pins one, the greatest kid with a private key signs.
+ *
+ * <p>With no directory configured the ring stays empty and {@link JwtUtils} keeps signing
+ * HS512 with {@code oc.app.jwtSecret}.
+ */
+@Component
+public class JwtKeyRing {
+  private static final Logger logger = LoggerFactory.getLogger(JwtKeyRing.class);
+
+  private static final String PUBLIC_SUFFIX = ".pub";
+  private static final String PRIVATE_SUFFIX = ".key";
+
+  private final Path keyDir;
+
+  private final String activeKid;
+
+  private volatile Map<String, KeyEntry> keys = Collections.emptyMap();
+
+  private volatile KeyEntry activeKey;
+
+  // Bumped whenever a key disappears, so tokens it verified can be forgotten
+  private final AtomicLong generation = new AtomicLong();
+
+  public JwtKeyRing(@Value("${oc.app.jwt.keyDir:}") String keyDir,
+      @Value("${oc.app.jwt.activeKid:}") String activeKid) {
+    this.keyDir = keyDir.isEmpty() ? null : Paths.get(keyDir);
+    this.activeKid = activeKid.isEmpty() ? null : activeKid;
+  }
+
+  public boolean isEnabled() {
+    return keyDir != null;
+  }
+
+  /**
+   * The key new tokens are signed with, or null when the ring has no private key.
+   */
+  public KeyEntry getActiveKey() {
+    return activeKey;
+  }
+
+  public KeyEntry getKey(String kid) {
+    return keys.get(kid);
+  }
+
+  public Collection<KeyEntry> getKeys() {
+    return keys.values();
+  }
+
+  public long getGeneration() {
+    return generation.get();
+  }
+
+  /**
+   * Public keys in JWK Set form, for services verifying our tokens locally.
+   */
+  public Map<String, Object> toJwks() {
+    return Collections.singletonMap("keys",
+        keys.values().stream().map(KeyEntry::toJwk).collect(Collectors.toList()));
+  }
+
+  @PostConstruct
+  @Scheduled(fixedDelayString = "${oc.app.jwt.keyReloadMs:60000}")
+  public synchronized void reload() {
+    if (keyDir == null) {
+      return;
+    }
+
+    Map<String, KeyEntry> loaded;
+    try {
+      loaded = load();
+    } catch (IOException | GeneralSecurityException | IllegalArgumentException e) {
+      // Keep signing with the keys we had rather than with none
+      logger.error("Cannot load JWT keys from {}: {}", keyDir, e.getMessage());
+      return;
+    }
+
+    KeyEntry active = null;
+    for (KeyEntry entry : loaded.values()) {
+      if (entry.getPrivateKey() != null && (activeKid == null || activeKid.equals(entry.getKid()))) {
+        active = entry;
+      }
+    }
+    if (active == null) {
+      logger.error("No JWT signing key {} in {}", activeKid == null ? "" : activeKid, keyDir);
+    }
+
+    boolean removed = keys.keySet().stream().anyMatch(kid -> !loaded.containsKey(kid));
+    keys = loaded;
+    activeKey = active;
+    if (removed) {
+      generation.incrementAndGet();
+    }
+  }
+
+  private Map<String, KeyEntry> load() throws IOException, GeneralSecurityException {
+    // Sorted, so the last kid with a private key is the greatest
+    Map<String, KeyEntry> loaded = new TreeMap<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(keyDir, "*" + PUBLIC_SUFFIX)) {
+      for (Path publicFile : files) {
+        String fileName = publicFile.getFileName().toString();
+        String kid = fileName.substring(0, fileName.length() - PUBLIC_SUFFIX.length());
+
+        PublicKey publicKey = readPublicKey(publicFile);
+        Path privateFile = keyDir.resolve(kid + PRIVATE_SUFFIX);
+        PrivateKey privateKey = Files.exists(privateFile)
+            ? readPrivateKey(privateFile, publicKey.getAlgorithm())
+            : null;
+
+        loaded.put(kid, new KeyEntry(kid, algorithmFor(publicKey), publicKey, privateKey));
+      }
+    }
+    return Collections.unmodifiableMap(new LinkedHashMap<>(loaded));
+  }
+
+  private static PublicKey readPublicKey(Path file) throws IOException, GeneralSecurityException {
+    byte[] der = readPem(file);
+    for (String algorithm : Arrays.asList("RSA", "EC")) {
+      try {
+        return KeyFactory.getInstance(algorithm).generatePublic(new X509EncodedKeySpec(der));
+      } catch (GeneralSecurityException e) {
+        // Try the next key type
+      }
+    }
+    throw new GeneralSecurityException(file.getFileName() + " is neither an RSA nor an EC public key");
+  }
+
+  private static PrivateKey readPrivateKey(Path file, String algorithm) throws IOException, GeneralSecurityException {
+    return KeyFactory.getInstance(algorithm).generatePrivate(new PKCS8EncodedKeySpec(readPem(file)));
+  }
+
+  private static byte[] readPem(Path file) throws IOException {
+    String pem = new String(Files.readAllBytes(file), StandardCharsets.US_ASCII)
+        .replaceAll("-----[A-Z ]+-----", "")
+        .replaceAll("\\s", "");
+    return Base64.getDecoder().decode(pem);
+  }
+
+  private static SignatureAlgorithm algorithmFor(PublicKey publicKey) throws GeneralSecurityException {
+    if (publicKey instanceof RSAPublicKey) {
+      return SignatureAlgorithm.RS256;
+    }
+    int fieldSize = ((ECPublicKey) publicKey).getParams().getCurve().getField().getFieldSize();
+    switch (fieldSize) {
+      case 256:
+        return SignatureAlgorithm.ES256;
+      case 384:
+        return SignatureAlgorithm.ES384;
+      case 521:
+        return SignatureAlgorithm.ES512;
+      default:
+        throw new GeneralSecurityException("Unsupported EC curve of " + fieldSize + " bits");
+    }
+  }
+
+  @Getter
+  @AllArgsConstructor
+  public static class KeyEntry {
+    private final String kid;
+
+    private final SignatureAlgorithm algorithm;
+
+    private final PublicKey publicKey;
+
+    // Null for keys we only verify with
+    private final PrivateKey privateKey;
+
+    Map<String, Object> toJwk() {
+      Map<String, Object> jwk = new LinkedHashMap<>();
+      jwk.put("kid", kid);
+      jwk.put("use", "sig");
+      jwk.put("alg", algorithm.getValue());
+      if (publicKey instanceof RSAPublicKey) {
+        RSAPublicKey rsa = (RSAPublicKey) publicKey;
+        jwk.put("kty", "RSA");
+        jwk.put("n", base64Url(rsa.getModulus(), 0));
+        jwk.put("e", base64Url(rsa.getPublicExponent(), 0));
+      } else {
+        ECPublicKey ec = (ECPublicKey) publicKey;
+        int size = (ec.getParams().getCurve().getField().getFieldSize() + 7) / 8;
+        jwk.put("kty", "EC");
+        jwk.put("crv", "P-" + ec.getParams().getCurve().getField().getFieldSize());
+        jwk.put("x", base64Url(ec.getW().getAffineX(), size));
+        jwk.put("y", base64Url(ec.getW().getAffineY(), size));
+      }
+      return jwk;
+    }
+
+    // Unsigned big-endian, left-padded to size bytes when size is not 0
+    private static String base64Url(BigInteger value, int size) {
+      byte[] bytes = value.toByteArray();
+      if (bytes.length > 1 && bytes[0] == 0) {
+        bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+      }
+      if (bytes.length < size) {
+        byte[] padded = new byte[size];
+        System.arraycopy(bytes, 0, padded, size - bytes.length, bytes.length);
+        bytes = padded;
+      }
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+  }
+}
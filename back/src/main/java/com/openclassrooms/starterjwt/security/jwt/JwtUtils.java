@@ -1,59 +1,242 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import javax.annotation.PostConstruct;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.impl.TextCodec;
 
 @Component
 public class JwtUtils {
-  private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
+  static final int MAX_VERIFIED_TOKENS = 10_000;
+
+  static final String CLAIM_ID = "id";
+  static final String CLAIM_FIRST_NAME = "firstName";
+  static final String CLAIM_LAST_NAME = "lastName";
+  static final String CLAIM_ADMIN = "admin";
 
   @Value("${oc.app.jwtSecret}")
   private String jwtSecret;
 
+  // jwtSecret decoded once, rather than on every HS512 signature and verification
+  private Key secretKey;
+
+  @Autowired
+  private AuthFailureRecorder authFailures;
+
+  // Asymmetric keys by kid; while it is empty tokens are signed HS512 with jwtSecret
+  @Autowired
+  private JwtKeyRing keyRing;
+
   @Value("${oc.app.jwtExpirationMs}")
   private int jwtExpirationMs;
 
-  public String generateJwtToken(Authentication authentication) {
+  // Beyond this age a token no longer vouches for its user on its own, see getPrincipalFromClaims
+  @Value("${oc.app.jwtStatelessMaxAgeMs:900000}")
+  private long jwtStatelessMaxAgeMs;
+
+  // Claims of tokens whose signature was already checked, keyed by the token digest.
+  // Each entry expires with its token, so a hit never needs the signature or exp checked again.
+  private final Cache<String, Claims> verifiedTokens = Caffeine.newBuilder()
+      .maximumSize(MAX_VERIFIED_TOKENS)
+      .expireAfter(new Expiry<String, Claims>() {
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+          return TimeUnit.MILLISECONDS.toNanos(
+              Math.max(0, claims.getExpiration().getTime() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+          return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+          return currentDuration;
+        }
+      })
+      .build();
+
+  private volatile long verifiedGeneration;
+
+  // Built once and never reconfigured, so it is shared by all threads. The key is picked
+  // per token from its kid header, which lets keys rotate under a live parser.
+  private final JwtParser parser = Jwts.parser().setSigningKeyResolver(new SigningKeyResolverAdapter() {
+    // jjwt 0.9 declares the header raw, so the override has to be; it goes no further than here
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+      JwsHeader<?> jwsHeader = header;
+      return verificationKey(jwsHeader);
+    }
+  });
 
-    UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
+  @PostConstruct
+  void init() {
+    secretKey = new SecretKeySpec(TextCodec.BASE64.decode(jwtSecret), SignatureAlgorithm.HS512.getJcaName());
+  }
+
+  public String generateJwtToken(Authentication authentication) {
+    return generateJwtToken((UserDetailsImpl) authentication.getPrincipal());
+  }
 
-    return Jwts.builder()
+  public String generateJwtToken(UserDetailsImpl userPrincipal) {
+    JwtBuilder builder = Jwts.builder()
         .setSubject((userPrincipal.getUsername()))
+        .setId(UUID.randomUUID().toString())
+        .claim(CLAIM_ID, userPrincipal.getId())
+        .claim(CLAIM_FIRST_NAME, userPrincipal.getFirstName())
+        .claim(CLAIM_LAST_NAME, userPrincipal.getLastName())
+        .claim(CLAIM_ADMIN, userPrincipal.getAdmin())
         .setIssuedAt(new Date())
-        .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-        .signWith(SignatureAlgorithm.HS512, jwtSecret)
+        .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs));
+
+    JwtKeyRing.KeyEntry signingKey = keyRing.getActiveKey();
+    if (signingKey == null) {
+      if (keyRing.isEnabled()) {
+        throw new IllegalStateException("No JWT signing key available");
+      }
+      return builder.signWith(SignatureAlgorithm.HS512, secretKey).compact();
+    }
+
+    return builder
+        .setHeaderParam(JwsHeader.KEY_ID, signingKey.getKid())
+        .signWith(signingKey.getAlgorithm(), signingKey.getPrivateKey())
         .compact();
   }
 
   public String getUserNameFromJwtToken(String token) {
-    return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+    return parser.parseClaimsJws(token).getBody().getSubject();
+  }
+
+  /**
+   * Verifies the token once and returns its claims, or null when it is invalid.
+   * Tokens seen before are answered from the cache without any signature work.
+   */
+  public Claims getClaimsFromJwtToken(String authToken) {
+    if (authToken == null || authToken.isEmpty()) {
+      authFailures.record(AuthFailureRecorder.Cause.EMPTY, "JWT claims string is empty");
+      return null;
+    }
+
+    forgetTokensOfRemovedKeys();
+
+    String digest = digest(authToken);
+    Claims claims = verifiedTokens.getIfPresent(digest);
+    if (claims != null) {
+      return claims;
+    }
+
+    claims = parseClaims(authToken);
+    // Tokens without exp are still accepted, but not remembered
+    if (claims != null && claims.getExpiration() != null) {
+      verifiedTokens.put(digest, claims);
+    }
+
+    return claims;
+  }
+
+  /**
+   * Rebuilds the principal from verified claims alone. Returns null when the token
+   * lacks the user claims or was issued more than {@code jwtStatelessMaxAgeMs} ago,
+   * in which case the caller has to load the user from the database. The age limit
+   * bounds how long a deleted or modified user keeps working.
+   */
+  public UserDetailsImpl getPrincipalFromClaims(Claims claims) {
+    Long id = claims.get(CLAIM_ID, Long.class);
+    Date issuedAt = claims.getIssuedAt();
+    if (id == null || issuedAt == null
+        || System.currentTimeMillis() - issuedAt.getTime() > jwtStatelessMaxAgeMs) {
+      return null;
+    }
+
+    return UserDetailsImpl
+        .builder()
+        .id(id)
+        .username(claims.getSubject())
+        .firstName(claims.get(CLAIM_FIRST_NAME, String.class))
+        .lastName(claims.get(CLAIM_LAST_NAME, String.class))
+        .admin(claims.get(CLAIM_ADMIN, Boolean.class))
+        .build();
   }
 
   public boolean validateJwtToken(String authToken) {
+    return getClaimsFromJwtToken(authToken) != null;
+  }
+
+  private Claims parseClaims(String authToken) {
     try {
-      Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-      return true;
+      return parser.parseClaimsJws(authToken).getBody();
     } catch (SignatureException e) {
-      logger.error("Invalid JWT signature: {}", e.getMessage());
+      authFailures.record(AuthFailureRecorder.Cause.BAD_SIGNATURE, e.getMessage());
     } catch (MalformedJwtException e) {
-      logger.error("Invalid JWT token: {}", e.getMessage());
+      authFailures.record(AuthFailureRecorder.Cause.MALFORMED, e.getMessage());
     } catch (ExpiredJwtException e) {
-      logger.error("JWT token is expired: {}", e.getMessage());
+      authFailures.record(AuthFailureRecorder.Cause.EXPIRED, e.getMessage());
     } catch (UnsupportedJwtException e) {
-      logger.error("JWT token is unsupported: {}", e.getMessage());
+      authFailures.record(AuthFailureRecorder.Cause.UNSUPPORTED, e.getMessage());
     } catch (IllegalArgumentException e) {
-      logger.error("JWT claims string is empty: {}", e.getMessage());
+      authFailures.record(AuthFailureRecorder.Cause.EMPTY, e.getMessage());
     }
 
-    return false;
+    return null;
+  }
+
+  private Key verificationKey(JwsHeader<?> header) {
+    String kid = header.getKeyId();
+    if (!keyRing.isEnabled()) {
+      if (kid != null) {
+        throw new UnsupportedJwtException("JWT key id " + kid + " is not expected");
+      }
+      return secretKey;
+    }
+
+    JwtKeyRing.KeyEntry key = kid == null ? null : keyRing.getKey(kid);
+    if (key == null) {
+      throw new UnsupportedJwtException("JWT key id " + kid + " is unknown");
+    }
+    // Never let the token choose a weaker algorithm than the key was issued for
+    if (!key.getAlgorithm().getValue().equals(header.getAlgorithm())) {
+      throw new UnsupportedJwtException("JWT algorithm " + header.getAlgorithm() + " does not match key " + kid);
+    }
+    return key.getPublicKey();
+  }
+
+  private void forgetTokensOfRemovedKeys() {
+    long generation = keyRing.getGeneration();
+    if (generation != verifiedGeneration) {
+      verifiedTokens.invalidateAll();
+      verifiedGeneration = generation;
+    }
+  }
+
+  private static String digest(String token) {
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+      return Base64.getEncoder().encodeToString(hash);
+    } catch (NoSuchAlgorithmException e) {
+      // Every JRE ships SHA-256
+      throw new IllegalStateException(e);
+    }
   }
 }
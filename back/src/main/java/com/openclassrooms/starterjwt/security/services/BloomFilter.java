@@ -0,0 +1,68 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, thread-safe Bloom filter over strings. {@link #mightContain(String)}
+ * never answers false for a value that was put, and answers true for an absent
+ * value with roughly the probability given at construction.
+ */
+class BloomFilter {
+  private final AtomicLongArray words;
+
+  private final int bitCount;
+
+  private final int hashCount;
+
+  BloomFilter(int expectedInsertions, double falsePositiveProbability) {
+    int n = Math.max(1, expectedInsertions);
+    double bits = -n * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2));
+    this.bitCount = (int) Math.max(64, Math.min(bits, Integer.MAX_VALUE - 64));
+    this.hashCount = Math.max(1, (int) Math.round(bitCount / (double) n * Math.log(2)));
+    this.words = new AtomicLongArray((bitCount + 63) / 64);
+  }
+
+  void put(String value) {
+    long hash = hash(value);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      int bit = index(h1 + i * h2);
+      long mask = 1L << bit;
+      words.getAndAccumulate(bit >>> 6, mask, (word, m) -> word | m);
+    }
+  }
+
+  boolean mightContain(String value) {
+    long hash = hash(value);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      int bit = index(h1 + i * h2);
+      if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int index(int combinedHash) {
+    return (combinedHash & Integer.MAX_VALUE) % bitCount;
+  }
+
+  // FNV-1a followed by the MurmurHash3 finalizer, enough spread for double hashing
+  private static long hash(String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b;
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
@@ -0,0 +1,128 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.openclassrooms.starterjwt.exception.InvalidRefreshTokenException;
+import com.openclassrooms.starterjwt.models.RefreshToken;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.RefreshTokenRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Opaque, single-use refresh tokens. Each refresh exchanges the token for a new one
+ * of the same family; presenting an already exchanged token is treated as theft and
+ * revokes the whole family, so both the thief and the victim have to log in again.
+ */
+@Service
+public class RefreshTokenService {
+  private static final SecureRandom RANDOM = new SecureRandom();
+
+  private final RefreshTokenRepository refreshTokenRepository;
+
+  private final UserRepository userRepository;
+
+  private final long refreshExpirationMs;
+
+  public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserRepository userRepository,
+      @Value("${oc.app.refreshExpirationMs:604800000}") long refreshExpirationMs) {
+    this.refreshTokenRepository = refreshTokenRepository;
+    this.userRepository = userRepository;
+    this.refreshExpirationMs = refreshExpirationMs;
+  }
+
+  /**
+   * Starts a new family, on login.
+   */
+  @Transactional
+  public String issue(Long userId) {
+    return save(UUID.randomUUID().toString(), userId);
+  }
+
+  /**
+   * Exchanges a refresh token for a new one. The rows written before an
+   * {@link InvalidRefreshTokenException} are kept, so a detected reuse stays revoked.
+   */
+  @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+  public Rotation rotate(String rawToken) {
+    RefreshToken current = refreshTokenRepository.findByTokenHash(hash(rawToken))
+        .orElseThrow(InvalidRefreshTokenException::new);
+
+    if (current.isUsed()) {
+      refreshTokenRepository.deleteFamily(current.getFamily());
+      throw new InvalidRefreshTokenException();
+    }
+    if (current.getExpiresAt().before(new Date())) {
+      refreshTokenRepository.delete(current);
+      throw new InvalidRefreshTokenException();
+    }
+
+    User user = userRepository.findById(current.getUserId()).orElse(null);
+    if (user == null) {
+      refreshTokenRepository.deleteFamily(current.getFamily());
+      throw new InvalidRefreshTokenException();
+    }
+
+    current.setUsed(true);
+    return new Rotation(user, save(current.getFamily(), user.getId()));
+  }
+
+  /**
+   * Revokes every token of the family {@code rawToken} belongs to, on logout.
+   */
+  @Transactional
+  public void revoke(String rawToken) {
+    refreshTokenRepository.findByTokenHash(hash(rawToken))
+        .ifPresent(token -> refreshTokenRepository.deleteFamily(token.getFamily()));
+  }
+
+  @Scheduled(fixedDelayString = "${oc.app.refreshPurgeMs:3600000}")
+  public void purgeExpired() {
+    refreshTokenRepository.deleteExpired(new Date());
+  }
+
+  private String save(String family, Long userId) {
+    byte[] bytes = new byte[32];
+    RANDOM.nextBytes(bytes);
+    String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+    refreshTokenRepository.save(new RefreshToken()
+        .setTokenHash(hash(rawToken))
+        .setFamily(family)
+        .setUserId(userId)
+        .setExpiresAt(new Date(System.currentTimeMillis() + refreshExpirationMs)));
+
+    return rawToken;
+  }
+
+  private static String hash(String rawToken) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.US_ASCII));
+      return Base64.getEncoder().encodeToString(digest);
+    } catch (NoSuchAlgorithmException e) {
+      // Every JRE ships SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Getter
+  @AllArgsConstructor
+  public static class Rotation {
+    private final User user;
+
+    private final String refreshToken;
+  }
+}
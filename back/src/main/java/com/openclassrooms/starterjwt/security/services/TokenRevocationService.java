@@ -0,0 +1,71 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.util.Date;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.openclassrooms.starterjwt.models.RevokedToken;
+import com.openclassrooms.starterjwt.repository.RevokedTokenRepository;
+
+/**
+ * Denylist of revoked token ids. The REVOKED_TOKENS table is the source of truth;
+ * an in-memory Bloom filter in front of it answers "never revoked" for almost every
+ * request without touching the database. Only filter hits, revoked tokens and the
+ * rare false positives, are confirmed with a lookup.
+ *
+ * The filter is rebuilt from the table on a schedule, which drops expired entries
+ * and picks up revocations made by other instances.
+ */
+@Service
+public class TokenRevocationService {
+  private final RevokedTokenRepository revokedTokenRepository;
+
+  private final int expectedTokens;
+
+  private final double falsePositiveProbability;
+
+  private volatile BloomFilter filter;
+
+  public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+      @Value("${oc.app.revocation.expectedTokens:100000}") int expectedTokens,
+      @Value("${oc.app.revocation.falsePositiveProbability:0.001}") double falsePositiveProbability) {
+    this.revokedTokenRepository = revokedTokenRepository;
+    this.expectedTokens = expectedTokens;
+    this.falsePositiveProbability = falsePositiveProbability;
+  }
+
+  public boolean isRevoked(String jti) {
+    if (jti == null || !filter.mightContain(jti)) {
+      return false;
+    }
+
+    return revokedTokenRepository.existsById(jti);
+  }
+
+  public void revoke(String jti, Date expiresAt) {
+    revokedTokenRepository.save(new RevokedToken(jti, expiresAt));
+
+    // Serialized with rebuild() so the id cannot fall between the reload and the swap
+    synchronized (this) {
+      filter.put(jti);
+    }
+  }
+
+  @PostConstruct
+  @Scheduled(fixedDelayString = "${oc.app.revocation.rebuildMs:60000}",
+      initialDelayString = "${oc.app.revocation.rebuildMs:60000}")
+  public synchronized void rebuild() {
+    Date now = new Date();
+    revokedTokenRepository.deleteExpired(now);
+    List<String> jtis = revokedTokenRepository.findActiveJtis(now);
+
+    BloomFilter rebuilt = new BloomFilter(Math.max(expectedTokens, jtis.size() * 2), falsePositiveProbability);
+    jtis.forEach(rebuilt::put);
+    filter = rebuilt;
+  }
+}
@@ -1,78 +1,308 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionParticipantRow;
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ConflictException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.request.SessionCursor;
+import com.openclassrooms.starterjwt.payload.request.SessionFilter;
+import com.openclassrooms.starterjwt.payload.response.BulkParticipationResponse;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.hibernate.Hibernate;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class SessionService {
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public static final String SESSION_CACHE = "session";
+
+    public static final String SESSIONS_CACHE = "sessions";
+
     private final SessionRepository sessionRepository;
 
     private final UserRepository userRepository;
 
-    public SessionService(SessionRepository sessionRepository, UserRepository userRepository) {
+    private final SessionMapper sessionMapper;
+
+    public SessionService(SessionRepository sessionRepository, UserRepository userRepository,
+                          SessionMapper sessionMapper) {
         this.sessionRepository = sessionRepository;
         this.userRepository = userRepository;
+        this.sessionMapper = sessionMapper;
     }
 
+    @CacheEvict(cacheNames = SESSIONS_CACHE, allEntries = true)
+    @Transactional
     public Session create(Session session) {
-        return this.sessionRepository.save(session);
+        Session created = this.sessionRepository.save(session);
+        if (created.getUsers() != null && !created.getUsers().isEmpty()) {
+            recountSeats(created);
+        }
+
+        return created;
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = SESSION_CACHE, key = "#id"),
+            @CacheEvict(cacheNames = SESSIONS_CACHE, allEntries = true)
+    })
     public void delete(Long id) {
         this.sessionRepository.deleteById(id);
     }
 
+    @Transactional(readOnly = true)
     public List<Session> findAll() {
-        return this.sessionRepository.findAll();
+        return this.sessionRepository.findAllWithParticipants();
+    }
+
+    /**
+     * Every session, mapped once and then served from the cache. The list and its DTOs
+     * are shared by every request that reads them: callers must not modify them.
+     */
+    @Cacheable(cacheNames = SESSIONS_CACHE, key = "'all'")
+    @Transactional(readOnly = true)
+    public List<SessionDto> findAllDtos() {
+        return this.sessionRepository.findAllWithParticipants().stream()
+                .map(this::snapshot)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * Sessions matching {@code filter}, uncached: unlike the whole listing, each
+     * combination of dates and teacher is asked for too rarely to be worth keeping.
+     */
+    @Transactional(readOnly = true)
+    public List<Session> findMatching(SessionFilter filter) {
+        checkRange(filter);
+
+        return this.sessionRepository.findMatching(filter);
     }
 
+    @Transactional(readOnly = true)
+    public Slice<Session> findPage(SessionFilter filter, SessionCursor cursor, int size, Sort.Direction direction) {
+        if (size < 1) {
+            throw new BadRequestException();
+        }
+        checkRange(filter);
+        int pageSize = Math.min(size, MAX_PAGE_SIZE);
+
+        // One extra row tells whether another page follows without a count query
+        List<Session> sessions = this.sessionRepository.findPage(filter, cursor, direction, pageSize + 1);
+        boolean hasNext = sessions.size() > pageSize;
+        // Mapped after the transaction: the first one loads the participants of the whole page in one batch
+        sessions.forEach(session -> Hibernate.initialize(session.getUsers()));
+
+        return new SliceImpl<>(hasNext ? sessions.subList(0, pageSize) : sessions,
+                PageRequest.of(0, pageSize), hasNext);
+    }
+
+    @Transactional(readOnly = true)
     public Session getById(Long id) {
-        return this.sessionRepository.findById(id).orElse(null);
+        return this.sessionRepository.findWithParticipantsById(id).orElse(null);
+    }
+
+    /**
+     * The session mapped once and then served from the cache, shared like
+     * {@link #findAllDtos()}.
+     */
+    @Cacheable(cacheNames = SESSION_CACHE, key = "#id", unless = "#result == null")
+    @Transactional(readOnly = true)
+    public SessionDto getDtoById(Long id) {
+        return this.sessionRepository.findWithParticipantsById(id).map(this::snapshot).orElse(null);
+    }
+
+    // Cached values outlive the transaction: no entity, and no list a caller could grow
+    private SessionDto snapshot(Session session) {
+        SessionDto dto = this.sessionMapper.toDto(session);
+        dto.setUsers(List.copyOf(dto.getUsers()));
+
+        return dto;
+    }
+
+    /**
+     * Hands every session to {@code consumer} one at a time, grouping the streamed
+     * rows by session id, so at most one {@link SessionDto} is alive at once.
+     */
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<SessionDto> consumer) {
+        try (Stream<SessionParticipantRow> rows = this.sessionRepository.streamAllWithParticipantIds()) {
+            SessionDto current = null;
+            Iterator<SessionParticipantRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                SessionParticipantRow row = iterator.next();
+                if (current == null || !current.getId().equals(row.getId())) {
+                    if (current != null) {
+                        consumer.accept(current);
+                    }
+                    current = new SessionDto(row.getId(), row.getName(), row.getDate(), row.getTeacherId(),
+                            row.getDescription(), row.getCapacity(), new ArrayList<>(), row.getCreatedAt(), row.getUpdatedAt());
+                }
+                if (row.getUserId() != null) {
+                    current.getUsers().add(row.getUserId());
+                }
+            }
+            if (current != null) {
+                consumer.accept(current);
+            }
+        }
+    }
+
+    public List<SessionSummaryDto> findAllSummaries() {
+        return this.sessionRepository.findAllSummaries();
     }
 
+    public SessionSummaryDto getSummaryById(Long id) {
+        SessionSummaryDto summary = this.sessionRepository.findSummaryById(id).orElse(null);
+        if (summary != null) {
+            summary.setUsers(this.sessionRepository.findParticipantIds(id));
+        }
+
+        return summary;
+    }
+
+    @Caching(evict = {
+            @CacheEvict(cacheNames = SESSION_CACHE, key = "#id"),
+            @CacheEvict(cacheNames = SESSIONS_CACHE, allEntries = true)
+    })
+    @Transactional
     public Session update(Long id, Session session) {
         session.setId(id);
-        return this.sessionRepository.save(session);
+        Session updated = this.sessionRepository.save(session);
+        // Always: a lower capacity alone can leave the session overbooked
+        recountSeats(updated);
+
+        return updated;
     }
 
-    public void participate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
-        User user = this.userRepository.findById(userId).orElse(null);
-        if (session == null || user == null) {
-            throw new NotFoundException();
+    // The exception rolls back the participants and capacity just written
+    private void recountSeats(Session session) {
+        if (this.sessionRepository.recountSeats(session.getId()) == 0) {
+            throw new ConflictException();
         }
+    }
 
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(alreadyParticipate) {
-            throw new BadRequestException();
+    @Caching(evict = {
+            @CacheEvict(cacheNames = SESSION_CACHE, key = "#id"),
+            @CacheEvict(cacheNames = SESSIONS_CACHE, allEntries = true)
+    })
+    @Transactional
+    public void participate(Long id, Long userId) {
+        if (this.sessionRepository.takeSeat(id) == 0) {
+            if (!this.sessionRepository.existsById(id)) {
+                throw new NotFoundException();
+            }
+            throw new ConflictException();
         }
 
-        session.getUsers().add(user);
+        if (this.sessionRepository.addParticipant(id, userId) == 1) {
+            return;
+        }
 
-        this.sessionRepository.save(session);
+        // Nothing inserted: the exception rolls the seat back
+        if (!this.userRepository.existsById(userId)) {
+            throw new NotFoundException();
+        }
+        throw new BadRequestException();
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = SESSION_CACHE, key = "#id"),
+            @CacheEvict(cacheNames = SESSIONS_CACHE, allEntries = true)
+    })
+    @Transactional
     public void noLongerParticipate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
-        if (session == null) {
+        // Same lock order as participate(): session row first, then PARTICIPATE
+        if (this.sessionRepository.releaseSeat(id) == 0) {
             throw new NotFoundException();
         }
 
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(!alreadyParticipate) {
+        if (this.sessionRepository.removeParticipant(id, userId) == 0) {
             throw new BadRequestException();
         }
+    }
 
-        session.setUsers(session.getUsers().stream().filter(user -> !user.getId().equals(userId)).collect(Collectors.toList()));
+    /**
+     * Enrols many users at once: one lookup for the users, one for those already
+     * participating, then a single batch insert. Users past the remaining capacity
+     * are reported as full rather than failing the whole request.
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = SESSION_CACHE, key = "#id"),
+            @CacheEvict(cacheNames = SESSIONS_CACHE, allEntries = true)
+    })
+    @Transactional
+    public BulkParticipationResponse participateAll(Long id, Collection<Long> userIds) {
+        Session session = this.sessionRepository.findForUpdateById(id).orElse(null);
+        if (session == null) {
+            throw new NotFoundException();
+        }
 
-        this.sessionRepository.save(session);
+        Set<Long> requested = new LinkedHashSet<>(userIds);
+        Set<Long> known = new HashSet<>();
+        for (User user : this.userRepository.findAllById(requested)) {
+            known.add(user.getId());
+        }
+        Set<Long> participating = known.isEmpty()
+                ? Collections.emptySet()
+                : new HashSet<>(this.sessionRepository.findParticipantIdsAmong(id, known));
+
+        int seatsLeft = session.getCapacity() == null
+                ? Integer.MAX_VALUE
+                : session.getCapacity() - session.getSeatsTaken();
+        List<Long> added = new ArrayList<>();
+        List<Long> duplicate = new ArrayList<>();
+        List<Long> unknown = new ArrayList<>();
+        List<Long> full = new ArrayList<>();
+        for (Long userId : requested) {
+            if (!known.contains(userId)) {
+                unknown.add(userId);
+            } else if (participating.contains(userId)) {
+                duplicate.add(userId);
+            } else if (added.size() < seatsLeft) {
+                added.add(userId);
+            } else {
+                full.add(userId);
+            }
+        }
+
+        if (!added.isEmpty()) {
+            this.sessionRepository.addParticipants(id, added);
+            this.sessionRepository.takeSeats(id, added.size());
+        }
+
+        return new BulkParticipationResponse(added, duplicate, unknown, full);
+    }
+
+    private static void checkRange(SessionFilter filter) {
+        if (filter.getFrom() != null && filter.getTo() != null && !filter.getFrom().before(filter.getTo())) {
+            throw new BadRequestException("Invalid date range");
+        }
     }
 }
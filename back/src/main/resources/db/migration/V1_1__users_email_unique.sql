@@ -0,0 +1,3 @@
+-- Sign-up relies on this index alone to refuse an email already taken.
+-- Fails on a database already holding the same email twice: merge those accounts first.
+ALTER TABLE `USERS` ADD CONSTRAINT `uk_users_email` UNIQUE (`email`);
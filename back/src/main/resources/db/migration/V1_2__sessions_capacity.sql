@@ -0,0 +1,8 @@
+-- No limit while capacity is null. seats_taken is only ever written by the seat
+-- statements of SessionRepository, so it starts from the participants already there.
+ALTER TABLE `SESSIONS` ADD COLUMN `capacity` INT;
+ALTER TABLE `SESSIONS` ADD COLUMN `seats_taken` INT NOT NULL DEFAULT 0;
+
+-- DISTINCT: PARTICIPATE has no key yet and may hold an enrolment twice until V2
+UPDATE `SESSIONS` SET `seats_taken` =
+  (SELECT COUNT(DISTINCT p.`user_id`) FROM `PARTICIPATE` p WHERE p.`session_id` = `SESSIONS`.`id`);
@@ -0,0 +1,7 @@
+-- Access tokens revoked on logout, kept until they would have expired anyway
+CREATE TABLE `REVOKED_TOKENS` (
+  `jti` VARCHAR(36) PRIMARY KEY,
+  `expires_at` DATETIME NOT NULL
+);
+
+CREATE INDEX `idx_revoked_tokens_expires_at` ON `REVOKED_TOKENS` (`expires_at`);
@@ -0,0 +1,13 @@
+-- Hashed refresh tokens, rotated within a family; the key to USERS is added by V2
+-- once USERS.id has the same BIGINT type
+CREATE TABLE `REFRESH_TOKENS` (
+  `id` BIGINT PRIMARY KEY AUTO_INCREMENT,
+  `token_hash` VARCHAR(44) NOT NULL UNIQUE,
+  `family` VARCHAR(36) NOT NULL,
+  `user_id` BIGINT NOT NULL,
+  `expires_at` DATETIME NOT NULL,
+  `used` BOOLEAN NOT NULL DEFAULT false
+);
+
+CREATE INDEX `idx_refresh_tokens_family` ON `REFRESH_TOKENS` (`family`);
+CREATE INDEX `idx_refresh_tokens_expires_at` ON `REFRESH_TOKENS` (`expires_at`);
@@ -0,0 +1,41 @@
+-- Schema as created by ressources/sql/script.sql, statement for statement.
+-- Existing databases are baselined at this version instead of running it, so anything
+-- added since goes into a later migration.
+
+CREATE TABLE `TEACHERS` (
+  `id` INT PRIMARY KEY AUTO_INCREMENT,
+  `last_name` VARCHAR(40),
+  `first_name` VARCHAR(40),
+  `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+CREATE TABLE `SESSIONS` (
+  `id` INT PRIMARY KEY AUTO_INCREMENT,
+  `name` VARCHAR(50),
+  `description` VARCHAR(2000),
+  `date` TIMESTAMP,
+  `teacher_id` int,
+  `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+CREATE TABLE `USERS` (
+  `id` INT PRIMARY KEY AUTO_INCREMENT,
+  `last_name` VARCHAR(40),
+  `first_name` VARCHAR(40),
+  `admin` BOOLEAN NOT NULL DEFAULT false,
+  `email` VARCHAR(255),
+  `password` VARCHAR(255),
+  `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+CREATE TABLE `PARTICIPATE` (
+  `user_id` INT, 
+  `session_id` INT
+);
+
+ALTER TABLE `SESSIONS` ADD FOREIGN KEY (`teacher_id`) REFERENCES `TEACHERS` (`id`);
+ALTER TABLE `PARTICIPATE` ADD FOREIGN KEY (`user_id`) REFERENCES `USERS` (`id`);
+ALTER TABLE `PARTICIPATE` ADD FOREIGN KEY (`session_id`) REFERENCES `SESSIONS` (`id`);
@@ -0,0 +1,28 @@
+-- Ids become BIGINT like the Long ids of the entities, which ddl-auto=validate checks.
+-- MySQL refuses to retype columns of a foreign key while the checks are on.
+SET FOREIGN_KEY_CHECKS = 0;
+
+ALTER TABLE `TEACHERS` MODIFY `id` BIGINT NOT NULL AUTO_INCREMENT;
+ALTER TABLE `USERS` MODIFY `id` BIGINT NOT NULL AUTO_INCREMENT;
+ALTER TABLE `SESSIONS` MODIFY `id` BIGINT NOT NULL AUTO_INCREMENT;
+ALTER TABLE `SESSIONS` MODIFY `teacher_id` BIGINT;
+
+-- Without a key PARTICIPATE may hold the same enrolment twice: keep one of each
+DELETE FROM `PARTICIPATE` WHERE `user_id` IS NULL OR `session_id` IS NULL;
+CREATE TABLE `PARTICIPATE_DISTINCT` AS SELECT DISTINCT `session_id`, `user_id` FROM `PARTICIPATE`;
+DELETE FROM `PARTICIPATE`;
+INSERT INTO `PARTICIPATE` (`session_id`, `user_id`) SELECT `session_id`, `user_id` FROM `PARTICIPATE_DISTINCT`;
+DROP TABLE `PARTICIPATE_DISTINCT`;
+
+ALTER TABLE `PARTICIPATE` MODIFY `session_id` BIGINT NOT NULL;
+ALTER TABLE `PARTICIPATE` MODIFY `user_id` BIGINT NOT NULL;
+
+SET FOREIGN_KEY_CHECKS = 1;
+
+-- Lookups by session (participants, enrolment checks) use the primary key,
+-- lookups by user (sessions of a user, deleting a user) the reverse index
+ALTER TABLE `PARTICIPATE` ADD PRIMARY KEY (`session_id`, `user_id`);
+CREATE INDEX `idx_participate_user_id` ON `PARTICIPATE` (`user_id`);
+
+ALTER TABLE `REFRESH_TOKENS` ADD CONSTRAINT `fk_refresh_tokens_user`
+  FOREIGN KEY (`user_id`) REFERENCES `USERS` (`id`) ON DELETE CASCADE;
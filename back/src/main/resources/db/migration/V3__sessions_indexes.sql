@@ -0,0 +1,6 @@
+-- Sessions are listed and paged by date; InnoDB appends the primary key to
+-- every secondary index, so this one also serves the (date, id) cursor
+CREATE INDEX `idx_sessions_date` ON `SESSIONS` (`date`);
+
+-- Sessions of a teacher, optionally within a date range
+CREATE INDEX `idx_sessions_teacher_id_date` ON `SESSIONS` (`teacher_id`, `date`);
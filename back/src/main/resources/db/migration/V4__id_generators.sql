@@ -0,0 +1,17 @@
+-- Sessions and teachers take their ids from this table, a block of 50 at a time
+-- (pooled-lo: next_val is the first id of the next block), so Hibernate can batch their inserts
+CREATE TABLE `ID_GENERATORS` (
+  `name` VARCHAR(64) PRIMARY KEY,
+  `next_val` BIGINT NOT NULL
+);
+
+INSERT INTO `ID_GENERATORS` (`name`, `next_val`) SELECT 'SESSIONS', COALESCE(MAX(`id`), 0) + 1 FROM `SESSIONS`;
+INSERT INTO `ID_GENERATORS` (`name`, `next_val`) SELECT 'TEACHERS', COALESCE(MAX(`id`), 0) + 1 FROM `TEACHERS`;
+
+-- An insert without id would take an auto-increment value the generator may hand out later
+SET FOREIGN_KEY_CHECKS = 0;
+
+ALTER TABLE `SESSIONS` MODIFY `id` BIGINT NOT NULL;
+ALTER TABLE `TEACHERS` MODIFY `id` BIGINT NOT NULL;
+
+SET FOREIGN_KEY_CHECKS = 1;
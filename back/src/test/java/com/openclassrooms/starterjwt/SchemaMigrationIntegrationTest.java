@@ -0,0 +1,58 @@
+package com.openclassrooms.starterjwt;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class SchemaMigrationIntegrationTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM PARTICIPATE WHERE session_id IN (SELECT id FROM SESSIONS WHERE name = 'Migration')");
+        jdbcTemplate.update("DELETE FROM SESSIONS WHERE name = 'Migration'");
+        jdbcTemplate.update("DELETE FROM USERS WHERE email = 'migration@example.com'");
+    }
+
+    /*---------------- MIGRATIONS ----------------*/
+    @Test
+    void shouldApplyEveryMigration_AtStartup() {
+        // When
+        int pending = flyway.info().pending().length;
+
+        // Then - le contexte a démarré, donc le schéma migré correspond aux entités
+        assertThat(pending).isZero();
+        assertThat(flyway.info().applied()).isNotEmpty();
+    }
+
+    /*---------------- PARTICIPATE PRIMARY KEY ----------------*/
+    @Test
+    void shouldRejectDuplicateParticipation() {
+        // Given
+        jdbcTemplate.update("INSERT INTO USERS (email, last_name, first_name, password, admin) "
+                + "VALUES ('migration@example.com', 'Doe', 'John', 'x', false)");
+        jdbcTemplate.update("INSERT INTO SESSIONS (id, name, description, date) "
+                + "VALUES (-1, 'Migration', 'Yoga', CURRENT_TIMESTAMP)");
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM USERS WHERE email = 'migration@example.com'", Long.class);
+        Long sessionId = jdbcTemplate.queryForObject("SELECT id FROM SESSIONS WHERE name = 'Migration'", Long.class);
+        jdbcTemplate.update("INSERT INTO PARTICIPATE (session_id, user_id) VALUES (?, ?)", sessionId, userId);
+
+        // When / Then - la clé primaire (session_id, user_id) refuse le doublon
+        assertThatThrownBy(() -> jdbcTemplate.update(
+                "INSERT INTO PARTICIPATE (session_id, user_id) VALUES (?, ?)", sessionId, userId))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+}
@@ -1,5 +1,7 @@
 package com.openclassrooms.starterjwt.controllers;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -15,9 +17,14 @@ import org.junit.jupiter.api.TestInstance;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -34,6 +41,9 @@ class AuthControllerIntegrationTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     private User testUser;
 
     @BeforeEach
@@ -67,7 +77,8 @@ class AuthControllerIntegrationTest {
                 .andExpect(jsonPath("$.firstName").value(testUser.getFirstName()))
                 .andExpect(jsonPath("$.lastName").value(testUser.getLastName()))
                 .andExpect(jsonPath("$.admin").value(false))
-                .andExpect(jsonPath("$.token").isNotEmpty());
+                .andExpect(jsonPath("$.token").isNotEmpty())
+                .andExpect(jsonPath("$.refreshToken").isNotEmpty());
     }
 
     /*---------------- LOGIN FAIL (INVALID EMAIL) ----------------*/
@@ -114,6 +125,132 @@ class AuthControllerIntegrationTest {
                 .andExpect(status().isBadRequest());
     }
 
+    /*---------------- LOGOUT ----------------*/
+    @Test
+    void shouldRejectToken_AfterLogout() throws Exception {
+        // Given - un token valide
+        String json = "{ \"email\": \"" + testUser.getEmail() + "\", \"password\": \"password123\" }";
+        String response = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+                .andReturn().getResponse().getContentAsString();
+        String bearer = "Bearer " + objectMapper.readTree(response).get("token").asText();
+
+        mockMvc.perform(get("/api/teacher").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+
+        // When
+        mockMvc.perform(post("/api/auth/logout").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+
+        // Then - le token révoqué n'authentifie plus
+        mockMvc.perform(get("/api/teacher").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void shouldReturnBadRequest_WhenLogoutWithoutToken() throws Exception {
+        mockMvc.perform(post("/api/auth/logout"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldRevokeRefreshToken_OnLogout() throws Exception {
+        // Given
+        JsonNode session = login();
+        String refreshBody = "{ \"refreshToken\": \"" + session.get("refreshToken").asText() + "\" }";
+
+        // When
+        mockMvc.perform(post("/api/auth/logout")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + session.get("token").asText())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(refreshBody))
+                .andExpect(status().isOk());
+
+        // Then
+        refresh(session.get("refreshToken").asText())
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void shouldKeepRefreshToken_WhenLogoutRejected() throws Exception {
+        // Given
+        JsonNode session = login();
+        String refreshBody = "{ \"refreshToken\": \"" + session.get("refreshToken").asText() + "\" }";
+
+        // When - pas de bearer : la déconnexion est refusée en entier
+        mockMvc.perform(post("/api/auth/logout")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(refreshBody))
+                .andExpect(status().isBadRequest());
+
+        // Then
+        refresh(session.get("refreshToken").asText())
+                .andExpect(status().isOk());
+    }
+
+    /*---------------- REFRESH ----------------*/
+    @Test
+    void shouldIssueNewTokens_WhenRefreshing() throws Exception {
+        // Given
+        JsonNode session = login();
+
+        // When
+        String response = refresh(session.get("refreshToken").asText())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value(testUser.getEmail()))
+                .andExpect(jsonPath("$.admin").value(false))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode refreshed = objectMapper.readTree(response);
+
+        // Then - un nouveau couple de tokens, le nouveau token d'accès authentifie
+        assertThat(refreshed.get("refreshToken").asText()).isNotEqualTo(session.get("refreshToken").asText());
+        mockMvc.perform(get("/api/teacher").header(HttpHeaders.AUTHORIZATION, "Bearer " + refreshed.get("token").asText()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldRevokeWholeFamily_WhenRefreshTokenIsReused() throws Exception {
+        // Given - le token a déjà été échangé une fois
+        JsonNode session = login();
+        String stolen = session.get("refreshToken").asText();
+        String response = refresh(stolen)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String rotated = objectMapper.readTree(response).get("refreshToken").asText();
+
+        // When - il est rejoué
+        refresh(stolen)
+                .andExpect(status().isUnauthorized());
+
+        // Then - le dernier token de la famille est révoqué aussi
+        refresh(rotated)
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void shouldReturnUnauthorized_WhenRefreshTokenIsUnknown() throws Exception {
+        refresh("not-a-refresh-token")
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message").value("Refresh token is invalid or expired"));
+    }
+
+    @Test
+    void shouldReturnBadRequest_WhenRefreshTokenIsMissing() throws Exception {
+        mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /*---------------- JWKS ----------------*/
+    @Test
+    void shouldPublishNoKeys_WhenSigningWithSecret() throws Exception {
+        mockMvc.perform(get("/api/auth/jwks"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.keys").isEmpty());
+    }
+
     /*---------------- REGISTER SUCCESS ----------------*/
     @Test
     void shouldRegisterUserSuccessfully() throws Exception {
@@ -139,6 +276,65 @@ class AuthControllerIntegrationTest {
                 .andExpect(jsonPath("$.message").value("Error: Email is already taken!"));
     }
 
+    /*---------------- REGISTER RETRY (IDEMPOTENCY KEY) ----------------*/
+    @Test
+    void shouldReplayFirstResponse_WhenRegisterRetriedWithSameKey() throws Exception {
+        String json = "{ \"email\": \"retry@example.com\", \"firstName\": \"Jane\", \"lastName\": \"Smith\", \"password\": \"password123\" }";
+
+        // When - le client renvoie la même inscription après un timeout
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/auth/register")
+                    .header("Idempotency-Key", "signup-retry-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(json))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.message").value("User registered successfully!"));
+        }
+
+        // Then - un seul compte, pas de "Email is already taken" au second essai
+        assertThat(userRepository.findByEmail("retry@example.com")).isPresent();
+    }
+
+    @Test
+    void shouldReturnUnprocessable_WhenKeyReusedForAnotherEmail() throws Exception {
+        String first = "{ \"email\": \"first@example.com\", \"firstName\": \"Jane\", \"lastName\": \"Smith\", \"password\": \"password123\" }";
+        String second = "{ \"email\": \"second@example.com\", \"firstName\": \"Jane\", \"lastName\": \"Smith\", \"password\": \"password123\" }";
+
+        mockMvc.perform(post("/api/auth/register")
+                .header("Idempotency-Key", "signup-reused-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(first))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/register")
+                .header("Idempotency-Key", "signup-reused-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(second))
+                .andExpect(status().isUnprocessableEntity());
+
+        assertThat(userRepository.findByEmail("second@example.com")).isEmpty();
+    }
+
+    @Test
+    void shouldReturnUnprocessable_WhenKeyReusedWithAnotherPassword() throws Exception {
+        // Given - même email, mais pas la même inscription
+        String first = "{ \"email\": \"samemail@example.com\", \"firstName\": \"Jane\", \"lastName\": \"Smith\", \"password\": \"password123\" }";
+        String second = "{ \"email\": \"samemail@example.com\", \"firstName\": \"Jane\", \"lastName\": \"Smith\", \"password\": \"password456\" }";
+
+        mockMvc.perform(post("/api/auth/register")
+                .header("Idempotency-Key", "signup-reused-2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(first))
+                .andExpect(status().isOk());
+
+        // When & Then - pas de rejeu silencieux de la première réponse
+        mockMvc.perform(post("/api/auth/register")
+                .header("Idempotency-Key", "signup-reused-2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(second))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
     /*---------------- REGISTER FAIL (INVALID REQUEST) ----------------*/
     @Test
     void shouldReturnBadRequest_WhenRegisterRequestInvalid() throws Exception {
@@ -164,4 +360,18 @@ class AuthControllerIntegrationTest {
                 .andExpect(status().isBadRequest());
     }
 
+    private JsonNode login() throws Exception {
+        String json = "{ \"email\": \"" + testUser.getEmail() + "\", \"password\": \"password123\" }";
+        String response = mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response);
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"refreshToken\": \"" + refreshToken + "\" }"));
+    }
 }
@@ -0,0 +1,140 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class AuthLoginIntegrationTest {
+
+    private static final int BENCHMARK_USERS = 50;
+    private static final int BENCHMARK_THREADS = 8;
+    private static final int BENCHMARK_LOGINS = 400;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    // La base est partagée : on ne supprime que ce que le test a créé
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        users.add(userRepository.save(new User()
+                .setEmail("admin@example.com")
+                .setFirstName("Admin")
+                .setLastName("Admin")
+                .setPassword(passwordEncoder.encode("password123"))
+                .setAdmin(true)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Les refresh tokens partent avec leur user (ON DELETE CASCADE)
+        userRepository.deleteAllInBatch(users);
+        users.clear();
+    }
+
+    /*---------------- LOGIN STATEMENT COUNT ----------------*/
+    @Test
+    void shouldLoginWithSingleLookup() throws Exception {
+        // Given
+        statistics.clear();
+
+        // When
+        login("admin@example.com")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.admin").value(true));
+
+        // Then - le chargement du user par UserDetailsServiceImpl, puis l'écriture du refresh token
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+    }
+
+    /*---------------- LOGIN THROUGHPUT ----------------*/
+    // Lancer avec -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkConcurrentLogins() throws Exception {
+        // Given - une vague de connexions du matin
+        String hash = passwordEncoder.encode("password123");
+        List<User> morning = new ArrayList<>();
+        for (int i = 0; i < BENCHMARK_USERS; i++) {
+            morning.add(new User()
+                    .setEmail("morning" + i + "@example.com")
+                    .setFirstName("Morning")
+                    .setLastName("N" + i)
+                    .setPassword(hash)
+                    .setAdmin(false));
+        }
+        users.addAll(userRepository.saveAll(morning));
+
+        // Préchauffage
+        for (int i = 0; i < BENCHMARK_THREADS; i++) {
+            login("morning" + i + "@example.com").andExpect(status().isOk());
+        }
+        statistics.clear();
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(BENCHMARK_THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_LOGINS; i++) {
+            String email = "morning" + (i % BENCHMARK_USERS) + "@example.com";
+            futures.add(executor.submit(() -> login(email).andExpect(status().isOk())));
+        }
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        executor.shutdown();
+
+        // Then
+        System.out.printf("%d logins on %d threads in %d ms: %.1f logins/s, %.2f statements/login%n",
+                BENCHMARK_LOGINS, BENCHMARK_THREADS, elapsedMs, BENCHMARK_LOGINS * 1000.0 / elapsedMs,
+                (double) statistics.getPrepareStatementCount() / BENCHMARK_LOGINS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2L * BENCHMARK_LOGINS);
+    }
+
+    private ResultActions login(String email) throws Exception {
+        return mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{ \"email\": \"" + email + "\", \"password\": \"password123\" }"));
+    }
+}
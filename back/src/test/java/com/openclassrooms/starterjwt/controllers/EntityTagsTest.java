@@ -0,0 +1,39 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntityTagsTest {
+
+    /*---------------- SESSION PARTICIPANTS ----------------*/
+    @Test
+    void shouldChangeSessionTag_WhenParticipantsSwapped() {
+        // Given - même nombre de participants, même somme d'ids
+        SessionDto first = session(1L, 4L);
+        SessionDto second = session(2L, 3L);
+
+        // Then
+        assertThat(EntityTags.of(first)).isNotEqualTo(EntityTags.of(second));
+    }
+
+    @Test
+    void shouldKeepSessionTag_WhenParticipantsReordered() {
+        // Given - le join table ne garantit aucun ordre
+        SessionDto first = session(1L, 2L, 3L);
+        SessionDto second = session(3L, 1L, 2L);
+
+        // Then
+        assertThat(EntityTags.of(first)).isEqualTo(EntityTags.of(second));
+    }
+
+    private SessionDto session(Long... userIds) {
+        SessionDto session = new SessionDto();
+        session.setId(1L);
+        session.setUsers(List.of(userIds));
+        return session;
+    }
+}
@@ -0,0 +1,116 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RegistrationConcurrencyIntegrationTest {
+
+    private static final int THREADS = 16;
+    private static final String RACE_EMAIL = "race@example.com";
+    private static final String RETRY_EMAIL = "retry-race@example.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        // La base est partagée : on ne supprime que les comptes inscrits par le test
+        userRepository.findByEmail(RACE_EMAIL).ifPresent(userRepository::delete);
+        userRepository.findByEmail(RETRY_EMAIL).ifPresent(userRepository::delete);
+    }
+
+    /*---------------- CONCURRENT SIGN-UPS, SAME EMAIL ----------------*/
+    @Test
+    void shouldCreateOneAccount_WhenSameEmailRegisteredConcurrently() throws Exception {
+        // Given - des inscriptions simultanées avec le même email
+        String json = "{ \"email\": \"" + RACE_EMAIL + "\", \"firstName\": \"Race\", \"lastName\": \"Condition\", \"password\": \"password123\" }";
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        // When
+        List<Future<MvcResult>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                        .andReturn();
+            }));
+        }
+        start.countDown();
+
+        int created = 0;
+        int taken = 0;
+        for (Future<MvcResult> future : futures) {
+            MvcResult result = future.get(1, TimeUnit.MINUTES);
+            if (result.getResponse().getStatus() == 200) {
+                created++;
+            } else if (result.getResponse().getStatus() == 400
+                    && result.getResponse().getContentAsString().contains("Email is already taken")) {
+                taken++;
+            }
+        }
+        executor.shutdown();
+
+        // Then - la contrainte unique laisse passer une seule inscription
+        assertThat(created).isEqualTo(1);
+        assertThat(taken).isEqualTo(THREADS - 1);
+        assertThat(userRepository.findAll())
+                .filteredOn(user -> user.getEmail().equals(RACE_EMAIL))
+                .hasSize(1);
+    }
+
+    /*---------------- CONCURRENT RETRIES, SAME KEY ----------------*/
+    @Test
+    void shouldReplaySameAnswer_WhenRetriesRaceWithSameKey() throws Exception {
+        // Given - un client qui renvoie sa requête avant d'avoir eu la réponse
+        String json = "{ \"email\": \"" + RETRY_EMAIL + "\", \"firstName\": \"Retry\", \"lastName\": \"Race\", \"password\": \"password123\" }";
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        // When
+        List<Future<MvcResult>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return mockMvc.perform(post("/api/auth/register")
+                        .header("Idempotency-Key", "retry-race-key")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                        .andReturn();
+            }));
+        }
+        start.countDown();
+
+        // Then - toutes les tentatives reçoivent la réponse de la première
+        for (Future<MvcResult> future : futures) {
+            assertThat(future.get(1, TimeUnit.MINUTES).getResponse().getStatus()).isEqualTo(200);
+        }
+        executor.shutdown();
+        assertThat(userRepository.findByEmail(RETRY_EMAIL)).isPresent();
+    }
+}
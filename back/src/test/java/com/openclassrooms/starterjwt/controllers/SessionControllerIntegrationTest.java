@@ -15,13 +15,19 @@ import org.junit.jupiter.api.TestInstance;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 
 import static org.assertj.core.api.Assertions.*;
@@ -49,6 +55,9 @@ public class SessionControllerIntegrationTest {
         @Autowired
         private TeacherRepository teacherRepository;
 
+        @Autowired
+        private CacheManager cacheManager;
+
         // Données de test
         private Session testSession;
         private User testUser;
@@ -57,6 +66,9 @@ public class SessionControllerIntegrationTest {
         @BeforeEach
         void setUp() {
 
+                // Les sessions sont insérées via le repository : on repart d'un cache vide (invalidate() n'attend pas le commit)
+                cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).invalidate());
+
                 // System.out.println("=== SETUP SESSION INTEGRATION TESTS ===");
 
                 // Créer un teacher
@@ -152,7 +164,7 @@ public class SessionControllerIntegrationTest {
                 // System.out.println("Expected sessions count: at least 1 (testSession)");
 
                 // When & Then - MockMvc
-                mockMvc.perform(get("/api/session"))
+                mockMvc.perform(get("/api/session").param("all", "true"))
                                 .andExpect(status().isOk())
                                 .andExpect(jsonPath("$").isArray())
                                 .andExpect(jsonPath("$[*].id").value(hasItem(testSession.getId().intValue())))
@@ -162,6 +174,34 @@ public class SessionControllerIntegrationTest {
                 // System.out.println("All sessions retrieved successfully");
         }
 
+        @Test
+        @WithMockUser
+        void shouldReturnFirstPage_WhenNoPagingParameters() throws Exception {
+                // Given - plus de sessions qu'une page par défaut
+                for (int i = 0; i < 25; i++) {
+                        Session session = new Session();
+                        session.setName("Default page " + i);
+                        session.setDescription("Default page session");
+                        session.setDate(new Date(testSession.getDate().getTime() + (i + 1) * 60_000L));
+                        session.setTeacher(testTeacher);
+                        session.setUsers(new ArrayList<>());
+                        sessionRepository.save(session);
+                }
+
+                // When & Then - une page bornée, jamais la table entière
+                mockMvc.perform(get("/api/session"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items", hasSize(20)))
+                                .andExpect(jsonPath("$.nextCursor").isNotEmpty());
+        }
+
+        @Test
+        @WithMockUser
+        void shouldReturnBadRequest_WhenAllCombinedWithPaging() throws Exception {
+                mockMvc.perform(get("/api/session").param("all", "true").param("size", "5"))
+                                .andExpect(status().isBadRequest());
+        }
+
         /*---------------------------------- CREATE SESSION ---------------------------- */
 
         @Test
@@ -199,6 +239,87 @@ public class SessionControllerIntegrationTest {
                                 .contains("Evening Yoga");
         }
 
+        @Test
+        @WithMockUser
+        void shouldCreateSessionWithParticipants_WhenUsersExist() throws Exception {
+                // Given
+                SessionDto sessionDto = new SessionDto();
+                sessionDto.setName("Group Yoga");
+                sessionDto.setDescription("Session with participants");
+                sessionDto.setDate(new Date());
+                sessionDto.setTeacher_id(testTeacher.getId());
+                sessionDto.setUsers(Arrays.asList(testUser.getId()));
+
+                // When & Then
+                mockMvc.perform(post("/api/session")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(sessionDto)))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.users[0]").value(testUser.getId().intValue()));
+        }
+
+        @Test
+        @WithMockUser
+        void shouldReturnBadRequest_WhenCreatingSessionWithUnknownUser() throws Exception {
+                // Given - un user existant et un inexistant
+                SessionDto sessionDto = new SessionDto();
+                sessionDto.setName("Group Yoga");
+                sessionDto.setDescription("Session with an unknown participant");
+                sessionDto.setDate(new Date());
+                sessionDto.setTeacher_id(testTeacher.getId());
+                sessionDto.setUsers(Arrays.asList(testUser.getId(), 99999L));
+
+                // When & Then - plus d'entrée null silencieuse dans la liste
+                mockMvc.perform(post("/api/session")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(sessionDto)))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.message").value(containsString("99999")));
+
+                assertThat(sessionRepository.findAll())
+                                .extracting(Session::getName)
+                                .doesNotContain("Group Yoga");
+        }
+
+        @Test
+        @WithMockUser
+        void shouldReturnBadRequest_WhenCreatingSessionWithNullUser() throws Exception {
+                // Given
+                SessionDto sessionDto = new SessionDto();
+                sessionDto.setName("Group Yoga");
+                sessionDto.setDescription("Session with a null participant");
+                sessionDto.setDate(new Date());
+                sessionDto.setTeacher_id(testTeacher.getId());
+                sessionDto.setUsers(Arrays.asList(testUser.getId(), null));
+
+                // When & Then
+                mockMvc.perform(post("/api/session")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(sessionDto)))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.message").value("User ids cannot be null"));
+        }
+
+        @Test
+        @WithMockUser
+        void shouldCreateSessionWithParticipantOnce_WhenUserListedTwice() throws Exception {
+                // Given
+                SessionDto sessionDto = new SessionDto();
+                sessionDto.setName("Group Yoga");
+                sessionDto.setDescription("Session with a repeated participant");
+                sessionDto.setDate(new Date());
+                sessionDto.setTeacher_id(testTeacher.getId());
+                sessionDto.setUsers(Arrays.asList(testUser.getId(), testUser.getId()));
+
+                // When & Then
+                mockMvc.perform(post("/api/session")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(sessionDto)))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.users.length()").value(1))
+                                .andExpect(jsonPath("$.users[0]").value(testUser.getId().intValue()));
+        }
+
         /*---------------------------------- PUT SESSION ---------------------------- */
 
         @Test
@@ -337,6 +458,88 @@ public class SessionControllerIntegrationTest {
                 // System.out.println("User count unchanged (no duplicate)");
         }
 
+        /*---------------------------------- INVALID ID ---------------------------- */
+
+        @Test
+        @WithMockUser
+        void shouldReturnJsonBadRequest_WhenIdIsNotANumber() throws Exception {
+                mockMvc.perform(post("/api/session/abc/participate/" + testUser.getId()))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                                .andExpect(jsonPath("$.status").value(400))
+                                .andExpect(jsonPath("$.message").value("Invalid identifier"));
+        }
+
+        /*---------------------------------- SESSION FULL ---------------------------- */
+
+        @Test
+        @WithMockUser
+        void shouldReturnConflict_WhenSessionFull() throws Exception {
+                // Given - une seule place, déjà prise
+                testSession.setCapacity(1);
+                sessionRepository.save(testSession);
+                mockMvc.perform(post("/api/session/" + testSession.getId() + "/participate/" + testUser.getId()))
+                                .andExpect(status().isOk());
+
+                User lateUser = userRepository.save(new User()
+                                .setEmail("late@example.com")
+                                .setFirstName("Late")
+                                .setLastName("Comer")
+                                .setPassword("password123")
+                                .setAdmin(false));
+
+                // When & Then
+                mockMvc.perform(post("/api/session/" + testSession.getId() + "/participate/" + lateUser.getId()))
+                                .andExpect(status().isConflict())
+                                .andExpect(jsonPath("$.status").value(409))
+                                .andExpect(jsonPath("$.error").value("Conflict"))
+                                .andExpect(jsonPath("$.path").value("/api/session/" + testSession.getId() + "/participate/" + lateUser.getId()));
+
+                assertThat(sessionRepository.findParticipantIds(testSession.getId()))
+                                .containsExactly(testUser.getId());
+        }
+
+        /*---------------------------------- BULK PARTICIPATE ---------------------------- */
+
+        @Test
+        @WithMockUser
+        void shouldReportAddedDuplicateAndUnknown_WhenBulkParticipate() throws Exception {
+                // Given - testUser participe déjà
+                testSession.getUsers().add(testUser);
+                sessionRepository.save(testSession);
+
+                User newUser = userRepository.save(new User()
+                                .setEmail("group@example.com")
+                                .setFirstName("Group")
+                                .setLastName("Member")
+                                .setPassword("password123")
+                                .setAdmin(false));
+
+                String body = "{\"userIds\": [" + newUser.getId() + ", " + testUser.getId() + ", 99999]}";
+
+                // When & Then
+                mockMvc.perform(post("/api/session/" + testSession.getId() + "/participate")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.added[0]").value(newUser.getId().intValue()))
+                                .andExpect(jsonPath("$.duplicate[0]").value(testUser.getId().intValue()))
+                                .andExpect(jsonPath("$.unknown[0]").value(99999))
+                                .andExpect(jsonPath("$.full", hasSize(0)));
+
+                assertThat(sessionRepository.findParticipantIds(testSession.getId()))
+                                .containsExactlyInAnyOrder(testUser.getId(), newUser.getId());
+        }
+
+        @Test
+        @WithMockUser
+        void shouldReturnBadRequest_WhenBulkParticipateWithoutUsers() throws Exception {
+                mockMvc.perform(post("/api/session/" + testSession.getId() + "/participate")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"userIds\": []}"))
+                                .andExpect(status().isBadRequest());
+        }
+
         /*---------------------------------- USER UNPARTICIPATE ---------------------------- */
 
         @Test
@@ -373,4 +576,264 @@ public class SessionControllerIntegrationTest {
                 // updatedSession.getUsers().size());
         }
 
+        /*---------------------------------- PAGINATED SESSIONS ---------------------------- */
+
+        @Test
+        @WithMockUser
+        void shouldWalkAllSessionsWithCursor_WhenPaginated() throws Exception {
+                // Given - 4 sessions au total (testSession + 3)
+                for (int i = 1; i <= 3; i++) {
+                        Session session = new Session();
+                        session.setName("Session " + i);
+                        session.setDescription("Paginated session");
+                        session.setDate(new Date(testSession.getDate().getTime() + i * 60_000L));
+                        session.setTeacher(testTeacher);
+                        session.setUsers(new ArrayList<>());
+                        sessionRepository.save(session);
+                }
+
+                // When & Then - première page
+                String firstPage = mockMvc.perform(get("/api/session").param("size", "3"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items", hasSize(3)))
+                                .andExpect(jsonPath("$.items[0].id").value(testSession.getId().intValue()))
+                                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                                .andReturn().getResponse().getContentAsString();
+
+                String cursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+                // When & Then - dernière page
+                mockMvc.perform(get("/api/session").param("size", "3").param("cursor", cursor))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items", hasSize(1)))
+                                .andExpect(jsonPath("$.items[0].name").value("Session 3"))
+                                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        }
+
+        @Test
+        @WithMockUser
+        void shouldReturnSessionsNewestFirst_WhenDirectionDesc() throws Exception {
+                // Given
+                Session later = new Session();
+                later.setName("Later Yoga");
+                later.setDescription("Later session");
+                later.setDate(new Date(testSession.getDate().getTime() + 3_600_000L));
+                later.setTeacher(testTeacher);
+                later.setUsers(new ArrayList<>());
+                sessionRepository.save(later);
+
+                // When & Then
+                mockMvc.perform(get("/api/session").param("size", "1").param("direction", "desc"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items", hasSize(1)))
+                                .andExpect(jsonPath("$.items[0].name").value("Later Yoga"))
+                                .andExpect(jsonPath("$.nextCursor").isNotEmpty());
+        }
+
+        @Test
+        @WithMockUser
+        void shouldReturnBadRequest_WhenCursorInvalid() throws Exception {
+                mockMvc.perform(get("/api/session").param("cursor", "not-a-cursor"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+        }
+
+        @Test
+        @WithMockUser
+        void shouldReturnBadRequest_WhenDirectionInvalid() throws Exception {
+                mockMvc.perform(get("/api/session").param("size", "2").param("direction", "sideways"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.message").value("Invalid direction"));
+        }
+
+        /*---------------------------------- FILTERED SESSIONS ---------------------------- */
+
+        @Test
+        @WithMockUser
+        void shouldReturnOnlySessionsInDateRange_WhenFilteredByDate() throws Exception {
+                // Given - une session la semaine suivante
+                Instant from = testSession.getDate().toInstant().minusSeconds(60);
+                Session nextWeek = new Session();
+                nextWeek.setName("Next Week Yoga");
+                nextWeek.setDescription("Later session");
+                nextWeek.setDate(Date.from(from.plus(7, ChronoUnit.DAYS)));
+                nextWeek.setTeacher(testTeacher);
+                nextWeek.setUsers(new ArrayList<>());
+                sessionRepository.save(nextWeek);
+
+                // When & Then - [from, to) ne contient que testSession
+                mockMvc.perform(get("/api/session")
+                                .param("all", "true")
+                                .param("from", from.toString())
+                                .param("to", from.plus(7, ChronoUnit.DAYS).toString()))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$", hasSize(1)))
+                                .andExpect(jsonPath("$[0].id").value(testSession.getId().intValue()));
+        }
+
+        @Test
+        @WithMockUser
+        void shouldReturnOnlySessionsOfTeacher_WhenFilteredByTeacherAndPaginated() throws Exception {
+                // Given - deux sessions d'un autre teacher
+                Teacher otherTeacher = new Teacher();
+                otherTeacher.setFirstName("Anna");
+                otherTeacher.setLastName("Smith");
+                otherTeacher = teacherRepository.save(otherTeacher);
+                for (int i = 1; i <= 2; i++) {
+                        Session session = new Session();
+                        session.setName("Other " + i);
+                        session.setDescription("Other teacher session");
+                        session.setDate(new Date(testSession.getDate().getTime() + i * 60_000L));
+                        session.setTeacher(otherTeacher);
+                        session.setUsers(new ArrayList<>());
+                        sessionRepository.save(session);
+                }
+
+                // When & Then - première page
+                String firstPage = mockMvc.perform(get("/api/session")
+                                .param("teacherId", otherTeacher.getId().toString())
+                                .param("size", "1"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items", hasSize(1)))
+                                .andExpect(jsonPath("$.items[0].name").value("Other 1"))
+                                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                                .andReturn().getResponse().getContentAsString();
+
+                String cursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+                // When & Then - dernière page, avec les mêmes filtres
+                mockMvc.perform(get("/api/session")
+                                .param("teacherId", otherTeacher.getId().toString())
+                                .param("size", "1")
+                                .param("cursor", cursor))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items", hasSize(1)))
+                                .andExpect(jsonPath("$.items[0].name").value("Other 2"))
+                                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        }
+
+        @Test
+        @WithMockUser
+        void shouldReturnBadRequest_WhenDateRangeInvalid() throws Exception {
+                mockMvc.perform(get("/api/session")
+                                .param("from", "2026-10-19T00:00:00Z")
+                                .param("to", "2026-10-12T00:00:00Z"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.message").value("Invalid date range"));
+
+                mockMvc.perform(get("/api/session").param("from", "next monday"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.message").value("Invalid parameter: from"));
+        }
+
+        /*---------------------------------- SESSION SUMMARIES ---------------------------- */
+
+        @Test
+        @WithMockUser
+        void shouldReturnSummariesWithParticipantCount() throws Exception {
+                // Given
+                testSession.getUsers().add(testUser);
+                sessionRepository.save(testSession);
+
+                // When & Then
+                mockMvc.perform(get("/api/session/summary"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[0].id").value(testSession.getId().intValue()))
+                                .andExpect(jsonPath("$[0].teacher_id").value(testTeacher.getId().intValue()))
+                                .andExpect(jsonPath("$[0].participantCount").value(1))
+                                .andExpect(jsonPath("$[0].users").doesNotExist());
+        }
+
+        @Test
+        @WithMockUser
+        void shouldReturnSummaryWithParticipantIds_WhenValidId() throws Exception {
+                // Given
+                testSession.getUsers().add(testUser);
+                sessionRepository.save(testSession);
+
+                // When & Then
+                mockMvc.perform(get("/api/session/" + testSession.getId() + "/summary"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.name").value(testSession.getName()))
+                                .andExpect(jsonPath("$.participantCount").value(1))
+                                .andExpect(jsonPath("$.users[0]").value(testUser.getId().intValue()));
+        }
+
+        @Test
+        @WithMockUser
+        void shouldReturnNotFound_WhenSummaryDoesNotExist() throws Exception {
+                mockMvc.perform(get("/api/session/99999/summary"))
+                                .andExpect(status().isNotFound());
+        }
+
+        /*---------------------------------- CONDITIONAL GET ---------------------------- */
+
+        @Test
+        @WithMockUser
+        void shouldReturnNotModified_WhenETagMatches() throws Exception {
+                // Given
+                String eTag = mockMvc.perform(get("/api/session/" + testSession.getId()))
+                                .andExpect(status().isOk())
+                                .andExpect(header().exists("ETag"))
+                                .andReturn().getResponse().getHeader("ETag");
+
+                // When & Then
+                mockMvc.perform(get("/api/session/" + testSession.getId()).header("If-None-Match", eTag))
+                                .andExpect(status().isNotModified())
+                                .andExpect(header().string("ETag", eTag))
+                                .andExpect(content().string(""));
+        }
+
+        @Test
+        @WithMockUser
+        void shouldReturnSession_WhenParticipantsChangedSinceETag() throws Exception {
+                // Given
+                String eTag = mockMvc.perform(get("/api/session/" + testSession.getId()))
+                                .andReturn().getResponse().getHeader("ETag");
+
+                mockMvc.perform(post("/api/session/" + testSession.getId() + "/participate/" + testUser.getId()))
+                                .andExpect(status().isOk());
+
+                // When & Then
+                mockMvc.perform(get("/api/session/" + testSession.getId()).header("If-None-Match", eTag))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.users[0]").value(testUser.getId().intValue()));
+        }
+
+        /*---------------------------------- EXPORT SESSIONS ---------------------------- */
+
+        @Test
+        @WithMockUser
+        void shouldExportOneJsonLinePerSession() throws Exception {
+                // Given - une session avec participant, une sans
+                testSession.getUsers().add(testUser);
+                sessionRepository.save(testSession);
+
+                Session emptySession = new Session();
+                emptySession.setName("Evening Yoga");
+                emptySession.setDescription("Nobody yet");
+                emptySession.setDate(new Date());
+                emptySession.setTeacher(testTeacher);
+                emptySession.setUsers(new ArrayList<>());
+                emptySession = sessionRepository.save(emptySession);
+
+                // When
+                String body = mockMvc.perform(get("/api/session/export"))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                                .andReturn().getResponse().getContentAsString();
+
+                // Then
+                String[] lines = body.split("\n");
+                assertThat(lines).hasSize(2);
+
+                SessionDto first = objectMapper.readValue(lines[0], SessionDto.class);
+                SessionDto second = objectMapper.readValue(lines[1], SessionDto.class);
+                assertThat(first.getId()).isEqualTo(testSession.getId());
+                assertThat(first.getTeacher_id()).isEqualTo(testTeacher.getId());
+                assertThat(first.getUsers()).containsExactly(testUser.getId());
+                assertThat(second.getId()).isEqualTo(emptySession.getId());
+                assertThat(second.getUsers()).isEmpty();
+        }
+
 }
@@ -0,0 +1,232 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class SessionQueryCountIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    // Sessions datées loin dans le futur, pour ne paginer que celles du test
+    private static final Instant WINDOW = Instant.parse("2100-01-01T00:00:00Z");
+
+    private Statistics statistics;
+
+    private int created;
+
+    // La base est partagée : on ne supprime que ce que le test a créé
+    private final List<Long> sessionIds = new ArrayList<>();
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<Long> teacherIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        created = 0;
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionRepository.deleteAllById(sessionIds);
+        userRepository.deleteAllById(userIds);
+        teacherRepository.deleteAllById(teacherIds);
+        sessionIds.clear();
+        userIds.clear();
+        teacherIds.clear();
+    }
+
+    /*---------------- GET ALL SESSIONS ----------------*/
+    @Test
+    @WithMockUser
+    void shouldListSessionsWithFixedStatementCount_WhateverTheRowCount() throws Exception {
+        // Given - peu de sessions
+        long existing = sessionRepository.count();
+        createSessions(2);
+        long fewRows = countStatements(get("/api/session").param("all", "true"), existing + 2);
+
+        // Given - beaucoup plus de sessions, chacune avec son teacher et ses participants
+        createSessions(20);
+        long manyRows = countStatements(get("/api/session").param("all", "true"), existing + 22);
+
+        // Then
+        assertThat(fewRows).isEqualTo(1);
+        assertThat(manyRows).isEqualTo(fewRows);
+    }
+
+    /*---------------- GET PAGE OF SESSIONS ----------------*/
+    @Test
+    @WithMockUser
+    void shouldPageSessionsWithFixedStatementCount_WhateverTheRowCount() throws Exception {
+        // Given
+        createSessions(3);
+        long fewRows = countStatements(pageFrom(WINDOW), 3);
+
+        createSessions(40);
+        long manyRows = countStatements(pageFrom(WINDOW), 43);
+
+        // Then - une requête pour la page, une pour les participants
+        assertThat(fewRows).isEqualTo(2);
+        assertThat(manyRows).isEqualTo(fewRows);
+    }
+
+    /*---------------- PARTICIPATE ----------------*/
+    @Test
+    @WithMockUser
+    void shouldEnrolAndWithdrawWithOneStatement_WhateverTheParticipantCount() throws Exception {
+        // Given - une session qui a déjà beaucoup de participants
+        createSessions(1);
+        Session session = sessionRepository.findById(sessionIds.get(0)).orElseThrow();
+        List<User> others = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            others.add(saveUser(new User()
+                    .setEmail("crowd" + i + "@example.com")
+                    .setFirstName("Crowd")
+                    .setLastName("N" + i)
+                    .setPassword("password123")
+                    .setAdmin(false)));
+        }
+        Session crowded = sessionRepository.findWithParticipantsById(session.getId()).orElseThrow();
+        crowded.getUsers().addAll(others);
+        sessionRepository.save(crowded);
+        User newcomer = saveUser(new User()
+                .setEmail("newcomer@example.com")
+                .setFirstName("New")
+                .setLastName("Comer")
+                .setPassword("password123")
+                .setAdmin(false));
+
+        // When
+        statistics.clear();
+        mockMvc.perform(post("/api/session/" + session.getId() + "/participate/" + newcomer.getId()))
+                .andExpect(status().isOk());
+        long enrol = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        mockMvc.perform(delete("/api/session/" + session.getId() + "/participate/" + newcomer.getId()))
+                .andExpect(status().isOk());
+        long withdraw = statistics.getPrepareStatementCount();
+
+        // Then - le compteur de places puis une seule écriture sur PARTICIPATE, sans relire les participants
+        assertThat(enrol).isEqualTo(2);
+        assertThat(withdraw).isEqualTo(2);
+    }
+
+    /*---------------- BULK INSERT ----------------*/
+    @Test
+    void shouldInsertSessionsInBatches() {
+        // Given
+        List<Session> sessions = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            sessions.add(new Session()
+                    .setName("Bulk " + i)
+                    .setDescription("Batched insert")
+                    .setDate(new Date(System.currentTimeMillis() + i * 60_000L)));
+        }
+
+        // When
+        statistics.clear();
+        sessionRepository.saveAll(sessions).forEach(session -> sessionIds.add(session.getId()));
+        long statements = statistics.getPrepareStatementCount();
+
+        // Then - trois blocs d'ids et trois lots d'INSERT, au lieu d'un INSERT par session
+        assertThat(sessionRepository.findAllById(sessionIds)).hasSize(120);
+        assertThat(statements).isLessThanOrEqualTo(9);
+    }
+
+    private MockHttpServletRequestBuilder pageFrom(Instant from) {
+        return get("/api/session").param("size", "50").param("from", from.toString());
+    }
+
+    private long countStatements(RequestBuilder request, long expectedSessions) throws Exception {
+        // Mesure d'une lecture à froid, sans le cache de SessionService
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).invalidate());
+        statistics.clear();
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$..name", hasSize((int) expectedSessions)));
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void createSessions(int count) {
+        for (int i = 0; i < count; i++) {
+            int index = created++;
+
+            Teacher teacher = teacherRepository.save(new Teacher()
+                    .setFirstName("Teacher")
+                    .setLastName("N" + index));
+            teacherIds.add(teacher.getId());
+
+            List<User> users = new ArrayList<>();
+            for (int j = 0; j < 2; j++) {
+                users.add(saveUser(new User()
+                        .setEmail("user" + index + "-" + j + "@example.com")
+                        .setFirstName("User")
+                        .setLastName("N" + index)
+                        .setPassword("password123")
+                        .setAdmin(false)));
+            }
+
+            Session session = sessionRepository.save(new Session()
+                    .setName("Session " + index)
+                    .setDescription("Query count session")
+                    .setDate(Date.from(WINDOW.plusSeconds(index * 60L)))
+                    .setTeacher(teacher)
+                    .setUsers(users));
+            sessionIds.add(session.getId());
+        }
+    }
+
+    private User saveUser(User user) {
+        User saved = userRepository.save(user);
+        userIds.add(saved.getId());
+        return saved;
+    }
+}
@@ -40,12 +40,12 @@ public class TeacherControllerIntegrationTest {
         testTeacher1 = new Teacher();
         testTeacher1.setFirstName("John");
         testTeacher1.setLastName("Doe");
-        testTeacher1 = teacherRepository.save(testTeacher1);
+        testTeacher1 = teacherRepository.saveAndFlush(testTeacher1);
 
         testTeacher2 = new Teacher();
         testTeacher2.setFirstName("Anna");
         testTeacher2.setLastName("Smith");
-        testTeacher2 = teacherRepository.save(testTeacher2);
+        testTeacher2 = teacherRepository.saveAndFlush(testTeacher2);
     }
 
     @AfterEach
@@ -103,4 +103,40 @@ public class TeacherControllerIntegrationTest {
                 .andExpect(jsonPath("$[*].firstName").value(hasItem("Anna")));
     }
 
+    /*---------------- CONDITIONAL GET ----------------*/
+    @Test
+    @WithMockUser
+    void shouldReturnNotModified_WhenETagMatches() throws Exception {
+        // Given
+        String eTag = mockMvc.perform(get("/api/teacher/" + testTeacher1.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When & Then
+        mockMvc.perform(get("/api/teacher/" + testTeacher1.getId()).header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @WithMockUser
+    void shouldReturnNotModified_WhenNotModifiedSince() throws Exception {
+        // Given
+        String lastModified = mockMvc.perform(get("/api/teacher/" + testTeacher1.getId()))
+                .andReturn().getResponse().getHeader("Last-Modified");
+
+        // When & Then
+        mockMvc.perform(get("/api/teacher/" + testTeacher1.getId()).header("If-Modified-Since", lastModified))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @WithMockUser
+    void shouldReturnTeacher_WhenETagDoesNotMatch() throws Exception {
+        mockMvc.perform(get("/api/teacher/" + testTeacher1.getId()).header("If-None-Match", "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("John"));
+    }
+
 }
@@ -171,4 +171,21 @@ public class UserControllerIntegrationTest {
         userRepository.deleteById(anotherUser.getId());
     }
 
+    /*---------------------------------- CONDITIONAL GET ---------------------------- */
+
+    @Test
+    @WithMockUser
+    void shouldReturnNotModified_WhenETagMatches() throws Exception {
+        // Given
+        String eTag = mockMvc.perform(get("/api/user/" + testUser.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When & Then
+        mockMvc.perform(get("/api/user/" + testUser.getId()).header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
 }
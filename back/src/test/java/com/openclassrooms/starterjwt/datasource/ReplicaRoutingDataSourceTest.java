@@ -0,0 +1,149 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica1;
+
+    @Mock
+    private DataSource replica2;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replica1Connection;
+
+    @Mock
+    private Connection replica2Connection;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        routingDataSource = new ReplicaRoutingDataSource(primary, Arrays.asList(replica1, replica2), 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    /*---------------- WRITES ----------------*/
+    @Test
+    void shouldUsePrimary_WhenTransactionIsNotReadOnly() throws SQLException {
+        // Given
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        // When
+        Connection connection = routingDataSource.getConnection();
+
+        // Then
+        assertSame(primaryConnection, connection);
+        verifyNoInteractions(replica1, replica2);
+    }
+
+    @Test
+    void shouldUsePrimary_WhenCredentialsGiven() throws SQLException {
+        // Given - même dans une transaction en lecture seule
+        when(primary.getConnection("user", "secret")).thenReturn(primaryConnection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When
+        Connection connection = routingDataSource.getConnection("user", "secret");
+
+        // Then
+        assertSame(primaryConnection, connection);
+        verifyNoInteractions(replica1, replica2);
+    }
+
+    /*---------------- READS ----------------*/
+    @Test
+    void shouldSpreadReadOnlyTransactionsOverReplicas() throws SQLException {
+        // Given
+        when(replica1.getConnection()).thenReturn(replica1Connection);
+        when(replica2.getConnection()).thenReturn(replica2Connection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When
+        Connection first = routingDataSource.getConnection();
+        Connection second = routingDataSource.getConnection();
+
+        // Then - chaque replica à tour de rôle, jamais le primaire
+        assertSame(replica1Connection, first);
+        assertSame(replica2Connection, second);
+        verifyNoInteractions(primary);
+    }
+
+    /*---------------- REPLICA DOWN ----------------*/
+    @Test
+    void shouldSkipUnreachableReplica() throws SQLException {
+        // Given
+        when(replica1.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(replica2.getConnection()).thenReturn(replica2Connection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When
+        Connection first = routingDataSource.getConnection();
+        Connection second = routingDataSource.getConnection();
+        Connection third = routingDataSource.getConnection();
+
+        // Then - le replica en panne n'est plus sollicité pendant le délai de retry
+        assertSame(replica2Connection, first);
+        assertSame(replica2Connection, second);
+        assertSame(replica2Connection, third);
+        verify(replica1, times(1)).getConnection();
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    void shouldFallBackToPrimary_WhenNoReplicaIsReachable() throws SQLException {
+        // Given
+        when(replica1.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(replica2.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When
+        Connection connection = routingDataSource.getConnection();
+
+        // Then
+        assertSame(primaryConnection, connection);
+    }
+
+    @Test
+    void shouldUsePrimary_WhenNoReplicaConfigured() throws SQLException {
+        // Given
+        ReplicaRoutingDataSource primaryOnly = new ReplicaRoutingDataSource(primary, Collections.emptyList(), 60_000);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When
+        Connection connection = primaryOnly.getConnection();
+
+        // Then
+        assertSame(primaryConnection, connection);
+    }
+}
@@ -0,0 +1,131 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReplicaRoutingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @SpyBean
+    private ReplicaRoutingDataSource routingDataSource;
+
+    // Pour chaque connexion demandée : la transaction était-elle en lecture seule ?
+    private final List<Boolean> readOnlyAtCheckout = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() throws Exception {
+        doAnswer(invocation -> {
+            readOnlyAtCheckout.add(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+            return invocation.callRealMethod();
+        }).when(routingDataSource).getConnection();
+    }
+
+    /*---------------- READ THEN WRITE ----------------*/
+    @Test
+    @WithMockUser
+    void shouldTakeNewConnectionForWrite_AfterReadInSameRequest() throws Exception {
+        // Given
+        Session session = sessionRepository.save(new Session()
+                .setName("Routing")
+                .setDescription("Read then write")
+                .setDate(new Date())
+                .setUsers(new ArrayList<>()));
+        readOnlyAtCheckout.clear();
+
+        // When - le contrôleur relit la session en lecture seule avant de la supprimer
+        mockMvc.perform(delete("/api/session/" + session.getId()))
+                .andExpect(status().isOk());
+
+        // Then - la suppression ne réutilise pas la connexion de la lecture, qui peut venir d'un replica
+        assertThat(readOnlyAtCheckout).containsExactly(true, false);
+        assertThat(sessionRepository.existsById(session.getId())).isFalse();
+    }
+
+    @Test
+    @WithMockUser
+    void shouldTakeNewConnectionForWrite_AfterMapperLookups() throws Exception {
+        // Given
+        Teacher teacher = teacherRepository.save(new Teacher().setFirstName("Route").setLastName("Teacher"));
+        User user = userRepository.save(new User()
+                .setEmail("routing@example.com")
+                .setFirstName("Route")
+                .setLastName("User")
+                .setPassword("password123")
+                .setAdmin(false));
+        Session session = sessionRepository.save(new Session()
+                .setName("Routing")
+                .setDescription("Lookups then write")
+                .setDate(new Date())
+                .setTeacher(teacher)
+                .setUsers(new ArrayList<>()));
+        SessionDto update = new SessionDto();
+        update.setName("Routing updated");
+        update.setDescription("Lookups then write");
+        update.setDate(new Date());
+        update.setTeacher_id(teacher.getId());
+        update.setUsers(List.of(user.getId()));
+        readOnlyAtCheckout.clear();
+
+        try {
+            // When - le mapper résout le teacher et les participants avant l'enregistrement
+            mockMvc.perform(put("/api/session/" + session.getId())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(update)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.users[0]").value(user.getId().intValue()));
+
+            // Then - l'enregistrement a pris sa propre connexion, hors lecture seule
+            assertThat(readOnlyAtCheckout).contains(true);
+            assertThat(readOnlyAtCheckout.get(readOnlyAtCheckout.size() - 1)).isFalse();
+        } finally {
+            // La base est partagée : on ne supprime que ce que le test a créé
+            sessionRepository.deleteById(session.getId());
+            userRepository.deleteById(user.getId());
+            teacherRepository.deleteById(teacher.getId());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.openclassrooms.starterjwt.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class RestExceptionHandlerTest {
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new FailingController())
+                .setControllerAdvice(new RestExceptionHandler(new ErrorResponseWriter(new ObjectMapper())))
+                .build();
+    }
+
+    /*---------------- PASSWORD HASHING BUSY ----------------*/
+    @Test
+    void shouldAnswerServiceUnavailable_WhenHashingBusy() throws Exception {
+        mockMvc.perform(post("/busy"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+                .andExpect(jsonPath("$.message").value("Too many authentication requests, please retry later"))
+                .andExpect(jsonPath("$.path").value("/busy"));
+    }
+
+    @Test
+    void shouldAnswerServiceUnavailable_WhenHashingBusyIsWrapped() throws Exception {
+        // Spring Security emballe l'exception pendant la vérification d'un email inconnu
+        mockMvc.perform(post("/busy/wrapped"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+                .andExpect(jsonPath("$.path").value("/busy/wrapped"));
+    }
+
+    @RestController
+    static class FailingController {
+
+        @PostMapping("/busy")
+        void busy() {
+            throw new PasswordHashingBusyException(2);
+        }
+
+        @PostMapping("/busy/wrapped")
+        void wrapped() {
+            PasswordHashingBusyException cause = new PasswordHashingBusyException(2);
+            throw new InternalAuthenticationServiceException(cause.getMessage(), cause);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.openclassrooms.starterjwt.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import com.openclassrooms.starterjwt.security.jwt.AuthFailureRecorder;
+import com.openclassrooms.starterjwt.security.jwt.AuthFailureRecorder.Cause;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuthFailureRecorderTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ListAppender<ILoggingEvent> appender;
+
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        appender = new ListAppender<>();
+        appender.start();
+        logger = (Logger) LoggerFactory.getLogger(AuthFailureRecorder.class);
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+    }
+
+    /*---------------- COUNTERS ----------------*/
+    @Test
+    void shouldCountEveryFailure_ButLogOncePerInterval() {
+        // Given
+        AuthFailureRecorder recorder = new AuthFailureRecorder(meterRegistry, 60_000);
+
+        // When - une attaque de tokens expirés
+        for (int i = 0; i < 10_000; i++) {
+            recorder.record(Cause.EXPIRED, "JWT expired");
+        }
+
+        // Then
+        assertEquals(10_000.0, count("expired"));
+        assertEquals(1, appender.list.size());
+        assertEquals(0.0, count("bad_signature"));
+    }
+
+    @Test
+    void shouldSampleEachCauseSeparately() {
+        AuthFailureRecorder recorder = new AuthFailureRecorder(meterRegistry, 60_000);
+
+        for (int i = 0; i < 100; i++) {
+            recorder.record(Cause.EXPIRED, "JWT expired");
+            recorder.record(Cause.MALFORMED, "Malformed JWT");
+        }
+
+        // Une rafale d'une cause ne masque pas l'autre
+        assertEquals(2, appender.list.size());
+    }
+
+    /*---------------- SAMPLED LOG LINE ----------------*/
+    @Test
+    void shouldReportSuppressedCount_OnNextLine() throws InterruptedException {
+        // Given
+        AuthFailureRecorder recorder = new AuthFailureRecorder(meterRegistry, 50);
+        for (int i = 0; i < 5; i++) {
+            recorder.record(Cause.BAD_SIGNATURE, "Invalid signature");
+        }
+
+        // When - l'intervalle suivant
+        Thread.sleep(60);
+        recorder.record(Cause.BAD_SIGNATURE, "Invalid signature");
+
+        // Then
+        assertEquals(2, appender.list.size());
+        assertTrue(appender.list.get(1).getFormattedMessage().contains("4 similar not logged"));
+    }
+
+    private double count(String cause) {
+        return meterRegistry.get("auth.failures").tag("cause", cause).counter().count();
+    }
+}
@@ -18,11 +18,19 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import com.openclassrooms.starterjwt.security.jwt.AuthFailureRecorder;
 import com.openclassrooms.starterjwt.security.jwt.AuthTokenFilter;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.services.TokenRevocationService;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
 @ExtendWith(MockitoExtension.class)
 class AuthTokenFilterTest {
 
@@ -32,6 +40,12 @@ class AuthTokenFilterTest {
     @Mock
     private UserDetailsServiceImpl userDetailsService;
 
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private AuthFailureRecorder authFailures;
+
     @Mock
     private HttpServletRequest request;
 
@@ -49,8 +63,7 @@ class AuthTokenFilterTest {
     void shouldAuthenticateUser_whenValidToken() throws Exception {
         // Given
         when(request.getHeader("Authorization")).thenReturn("Bearer validtoken");
-        when(jwtUtils.validateJwtToken("validtoken")).thenReturn(true);
-        when(jwtUtils.getUserNameFromJwtToken("validtoken")).thenReturn("user@test.com");
+        when(jwtUtils.getClaimsFromJwtToken("validtoken")).thenReturn(Jwts.claims().setSubject("user@test.com"));
 
         UserDetails userDetails = mock(UserDetails.class);
         when(userDetails.getAuthorities()).thenReturn(Collections.emptyList());
@@ -59,9 +72,88 @@ class AuthTokenFilterTest {
         // When
         authTokenFilter.doFilterInternal(request, response, filterChain);
 
-        // Then
+        // Then - le token n'est vérifié qu'une fois
         verify(filterChain).doFilter(request, response);
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
+        verify(jwtUtils, times(1)).getClaimsFromJwtToken("validtoken");
+        verify(jwtUtils, never()).getUserNameFromJwtToken(any());
+    }
+
+    /*---------------- STATELESS PRINCIPAL ----------------*/
+    @Test
+    void shouldAuthenticateFromClaims_whenStatelessPrincipalEnabled() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(authTokenFilter, "statelessPrincipal", true);
+        Claims claims = Jwts.claims().setSubject("user@test.com");
+        UserDetailsImpl principal = UserDetailsImpl.builder().id(1L).username("user@test.com").build();
+        when(request.getHeader("Authorization")).thenReturn("Bearer validtoken");
+        when(jwtUtils.getClaimsFromJwtToken("validtoken")).thenReturn(claims);
+        when(jwtUtils.getPrincipalFromClaims(claims)).thenReturn(principal);
+
+        // When
+        authTokenFilter.doFilterInternal(request, response, filterChain);
+
+        // Then - aucun accès à la base
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isSameAs(principal);
+        verify(userDetailsService, never()).loadUserByUsername(any());
+    }
+
+    @Test
+    void shouldLoadUser_whenStatelessPrincipalRejectsToken() throws Exception {
+        // Given - token trop ancien pour le mode sans état
+        ReflectionTestUtils.setField(authTokenFilter, "statelessPrincipal", true);
+        Claims claims = Jwts.claims().setSubject("user@test.com");
+        when(request.getHeader("Authorization")).thenReturn("Bearer oldtoken");
+        when(jwtUtils.getClaimsFromJwtToken("oldtoken")).thenReturn(claims);
+        when(jwtUtils.getPrincipalFromClaims(claims)).thenReturn(null);
+
+        UserDetails userDetails = mock(UserDetails.class);
+        when(userDetails.getAuthorities()).thenReturn(Collections.emptyList());
+        when(userDetailsService.loadUserByUsername("user@test.com")).thenReturn(userDetails);
+
+        // When
+        authTokenFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isSameAs(userDetails);
+    }
+
+    /*---------------- NOT AUTHENTICATE WHEN TOKEN IS REVOKED ----------------*/
+    @Test
+    void shouldNotAuthenticate_whenTokenRevoked() throws Exception {
+        // Given
+        when(request.getHeader("Authorization")).thenReturn("Bearer revokedtoken");
+        when(jwtUtils.getClaimsFromJwtToken("revokedtoken"))
+                .thenReturn(Jwts.claims().setSubject("user@test.com").setId("jti-1"));
+        when(tokenRevocationService.isRevoked("jti-1")).thenReturn(true);
+
+        // When
+        authTokenFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(filterChain).doFilter(request, response);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(userDetailsService, never()).loadUserByUsername(any());
+        verify(authFailures).record(eq(AuthFailureRecorder.Cause.REVOKED), any());
+    }
+
+    /*---------------- NOT AUTHENTICATE WHEN USER IS UNKNOWN ----------------*/
+
+    @Test
+    void shouldCountUnknownUser_whenUserDeleted() throws Exception {
+        // Given
+        when(request.getHeader("Authorization")).thenReturn("Bearer validtoken");
+        when(jwtUtils.getClaimsFromJwtToken("validtoken")).thenReturn(Jwts.claims().setSubject("gone@test.com"));
+        when(userDetailsService.loadUserByUsername("gone@test.com"))
+                .thenThrow(new UsernameNotFoundException("User Not Found with email: gone@test.com"));
+
+        // When
+        authTokenFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(filterChain).doFilter(request, response);
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(authFailures).record(eq(AuthFailureRecorder.Cause.UNKNOWN_USER), any());
     }
 
     /*---------------- NOT AUTHENTICATE WHEN TOKEN IS INVALID ----------------*/
@@ -70,7 +162,7 @@ class AuthTokenFilterTest {
     void shouldNotAuthenticate_whenInvalidToken() throws Exception {
         // Given
         when(request.getHeader("Authorization")).thenReturn("Bearer invalidtoken");
-        when(jwtUtils.validateJwtToken("invalidtoken")).thenReturn(false);
+        when(jwtUtils.getClaimsFromJwtToken("invalidtoken")).thenReturn(null);
 
         // When
         authTokenFilter.doFilterInternal(request, response, filterChain);
@@ -91,7 +183,7 @@ class AuthTokenFilterTest {
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(jwtUtils, never()).validateJwtToken(any());
+        verify(jwtUtils, never()).getClaimsFromJwtToken(any());
     }
 
     /*---------------- NOT AUTHENTICATE WHEN AUTHORIZATION HEADER IS INVALID ----------------*/
@@ -106,7 +198,7 @@ class AuthTokenFilterTest {
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(jwtUtils, never()).validateJwtToken(any());
+        verify(jwtUtils, never()).getClaimsFromJwtToken(any());
     }
 
     /*---------------- CONTINUE FILTER WHEN EXCEPTION THROWN ----------------*/
@@ -115,7 +207,8 @@ class AuthTokenFilterTest {
     void shouldContinueFilter_whenExceptionThrown() throws Exception {
         // Given
         when(request.getHeader("Authorization")).thenReturn("Bearer validtoken");
-        when(jwtUtils.validateJwtToken("validtoken")).thenThrow(new RuntimeException("JWT error"));
+        RuntimeException error = new RuntimeException("JWT error");
+        when(jwtUtils.getClaimsFromJwtToken("validtoken")).thenThrow(error);
 
         // When
         authTokenFilter.doFilterInternal(request, response, filterChain);
@@ -123,6 +216,7 @@ class AuthTokenFilterTest {
         // Then
         verify(filterChain).doFilter(request, response);
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(authFailures).record(eq(AuthFailureRecorder.Cause.ERROR), any(), eq(error));
     }
 
     @AfterEach
@@ -0,0 +1,89 @@
+package com.openclassrooms.starterjwt.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.openclassrooms.starterjwt.exception.PasswordHashingBusyException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BoundedPasswordEncoderTest {
+
+    private PasswordEncoder delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private BoundedPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(PasswordEncoder.class);
+        meterRegistry = new SimpleMeterRegistry();
+        // Un seul thread, une seule place en file d'attente
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, 2, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        encoder.shutdown();
+    }
+
+    /*---------------- DELEGATION ----------------*/
+    @Test
+    void shouldDelegateEncodeAndMatches() {
+        when(delegate.encode("password123")).thenReturn("hash");
+        when(delegate.matches("password123", "hash")).thenReturn(true);
+
+        assertEquals("hash", encoder.encode("password123"));
+        assertTrue(encoder.matches("password123", "hash"));
+
+        assertEquals(1, meterRegistry.get("auth.password.hash").tag("operation", "encode").timer().count());
+        assertEquals(1, meterRegistry.get("auth.password.hash").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void shouldRethrowDelegateFailure() {
+        when(delegate.encode(any())).thenThrow(new IllegalArgumentException("bad"));
+
+        assertThrows(IllegalArgumentException.class, () -> encoder.encode("password123"));
+    }
+
+    /*---------------- BACKPRESSURE ----------------*/
+    @Test
+    void shouldRejectImmediately_WhenPoolAndQueueFull() throws Exception {
+        // Given - le thread est occupé et la file est pleine
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.encode(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return "hash";
+        });
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+        while (meterRegistry.get("auth.password.queue.depth").gauge().value() < 1) {
+            Thread.sleep(10);
+        }
+
+        // When & Then
+        PasswordHashingBusyException exception = assertThrows(PasswordHashingBusyException.class,
+                () -> encoder.encode("third"));
+        assertEquals(2, exception.getRetryAfterSeconds());
+        assertEquals(1, meterRegistry.get("auth.password.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("hash", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash", queued.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -1,10 +1,16 @@
 package com.openclassrooms.starterjwt.security;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.exception.ErrorResponseWriter;
 import com.openclassrooms.starterjwt.security.jwt.AuthEntryPointJwt;
+import com.openclassrooms.starterjwt.security.jwt.AuthFailureRecorder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
@@ -15,7 +21,10 @@ import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
@@ -35,7 +44,8 @@ class AuthEntryPointJwtTest {
 
     @BeforeEach
     void setUp() {
-        authEntryPointJwt = new AuthEntryPointJwt();
+        authEntryPointJwt = new AuthEntryPointJwt(new ErrorResponseWriter(new ObjectMapper()),
+                new AuthFailureRecorder(new SimpleMeterRegistry(), 10_000));
     }
 
     /*---------------- AUTH EXCEPTION ----------------*/
@@ -76,4 +86,24 @@ class AuthEntryPointJwtTest {
         verify(response).setContentType(MediaType.APPLICATION_JSON_VALUE);
         verify(response).setStatus(HttpServletResponse.SC_UNAUTHORIZED);
     }
+
+    /*---------------- BODY ----------------*/
+    @Test
+    void shouldWriteSameSerializedBody_ForRepeatedFailures() throws Exception {
+        // Given - une rafale d'échecs de connexion identiques
+        when(request.getServletPath()).thenReturn("/api/auth/login");
+        when(response.getOutputStream()).thenReturn(outputStream);
+        AuthenticationException authException = new BadCredentialsException("Bad credentials");
+
+        // When
+        authEntryPointJwt.commence(request, response, authException);
+        authEntryPointJwt.commence(request, response, authException);
+
+        // Then - le corps n'est sérialisé qu'une fois
+        ArgumentCaptor<byte[]> bodies = ArgumentCaptor.forClass(byte[].class);
+        verify(outputStream, times(2)).write(bodies.capture());
+        assertSame(bodies.getAllValues().get(0), bodies.getAllValues().get(1));
+        assertEquals("{\"status\":401,\"error\":\"Unauthorized\",\"message\":\"Bad credentials\",\"path\":\"/api/auth/login\"}",
+                new String(bodies.getValue(), StandardCharsets.UTF_8));
+    }
 }
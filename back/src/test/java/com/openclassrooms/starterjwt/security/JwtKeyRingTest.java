@@ -0,0 +1,139 @@
+package com.openclassrooms.starterjwt.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.openclassrooms.starterjwt.security.jwt.JwtKeyRing;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+
+class JwtKeyRingTest {
+
+    @TempDir
+    Path keyDir;
+
+    /*---------------- DISABLED ----------------*/
+    @Test
+    void shouldStayEmpty_WhenNoDirectoryConfigured() {
+        JwtKeyRing keyRing = new JwtKeyRing("", "");
+        keyRing.reload();
+
+        assertFalse(keyRing.isEnabled());
+        assertNull(keyRing.getActiveKey());
+        assertTrue(keyRing.getKeys().isEmpty());
+    }
+
+    /*---------------- LOAD ----------------*/
+    @Test
+    void shouldSignWithGreatestKid_AndVerifyWithAll() throws Exception {
+        // Given - une ancienne clé RSA retirée, deux clés EC avec clé privée
+        JwtTestKeys.write(keyDir, "2026-01", JwtTestKeys.rsa(), false);
+        JwtTestKeys.write(keyDir, "2026-02", JwtTestKeys.ec(), true);
+        JwtTestKeys.write(keyDir, "2026-03", JwtTestKeys.ec(), true);
+
+        // When
+        JwtKeyRing keyRing = new JwtKeyRing(keyDir.toString(), "");
+        keyRing.reload();
+
+        // Then
+        assertEquals("2026-03", keyRing.getActiveKey().getKid());
+        assertEquals(SignatureAlgorithm.ES256, keyRing.getActiveKey().getAlgorithm());
+        assertEquals(SignatureAlgorithm.RS256, keyRing.getKey("2026-01").getAlgorithm());
+        assertNull(keyRing.getKey("2026-01").getPrivateKey());
+        assertEquals(3, keyRing.getKeys().size());
+    }
+
+    @Test
+    void shouldSignWithPinnedKid() throws Exception {
+        JwtTestKeys.write(keyDir, "a", JwtTestKeys.ec(), true);
+        JwtTestKeys.write(keyDir, "b", JwtTestKeys.ec(), true);
+
+        JwtKeyRing keyRing = new JwtKeyRing(keyDir.toString(), "a");
+        keyRing.reload();
+
+        assertEquals("a", keyRing.getActiveKey().getKid());
+    }
+
+    /*---------------- ROTATION ----------------*/
+    @Test
+    void shouldPickUpNewKey_WithoutRestart() throws Exception {
+        // Given
+        JwtTestKeys.write(keyDir, "2026-01", JwtTestKeys.ec(), true);
+        JwtKeyRing keyRing = new JwtKeyRing(keyDir.toString(), "");
+        keyRing.reload();
+        long generation = keyRing.getGeneration();
+
+        // When - nouvelle clé, l'ancienne ne garde que sa clé publique
+        JwtTestKeys.write(keyDir, "2026-02", JwtTestKeys.ec(), true);
+        Files.delete(keyDir.resolve("2026-01.key"));
+        keyRing.reload();
+
+        // Then
+        assertEquals("2026-02", keyRing.getActiveKey().getKid());
+        assertNotNull(keyRing.getKey("2026-01"));
+        assertEquals(generation, keyRing.getGeneration());
+    }
+
+    @Test
+    void shouldBumpGeneration_WhenKeyRemoved() throws Exception {
+        JwtTestKeys.write(keyDir, "a", JwtTestKeys.ec(), true);
+        JwtTestKeys.write(keyDir, "b", JwtTestKeys.ec(), false);
+        JwtKeyRing keyRing = new JwtKeyRing(keyDir.toString(), "");
+        keyRing.reload();
+        long generation = keyRing.getGeneration();
+
+        Files.delete(keyDir.resolve("b.pub"));
+        keyRing.reload();
+
+        assertNull(keyRing.getKey("b"));
+        assertEquals(generation + 1, keyRing.getGeneration());
+    }
+
+    @Test
+    void shouldKeepPreviousKeys_WhenDirectoryBecomesUnreadable() throws Exception {
+        // Given
+        JwtTestKeys.write(keyDir, "a", JwtTestKeys.ec(), true);
+        JwtKeyRing keyRing = new JwtKeyRing(keyDir.toString(), "");
+        keyRing.reload();
+
+        // When - un fichier corrompu pendant une rotation
+        Files.write(keyDir.resolve("b.pub"), "not a key".getBytes());
+        keyRing.reload();
+
+        // Then
+        assertEquals("a", keyRing.getActiveKey().getKid());
+        assertNull(keyRing.getKey("b"));
+    }
+
+    /*---------------- JWKS ----------------*/
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldPublishOnlyPublicKeys() throws Exception {
+        KeyPair rsa = JwtTestKeys.rsa();
+        JwtTestKeys.write(keyDir, "rsa", rsa, true);
+        JwtTestKeys.write(keyDir, "ec", JwtTestKeys.ec(), true);
+        JwtKeyRing keyRing = new JwtKeyRing(keyDir.toString(), "");
+        keyRing.reload();
+
+        List<Map<String, Object>> keys = (List<Map<String, Object>>) keyRing.toJwks().get("keys");
+
+        assertEquals(2, keys.size());
+        Map<String, Object> ec = keys.get(0);
+        assertEquals("ec", ec.get("kid"));
+        assertEquals("EC", ec.get("kty"));
+        assertEquals("P-256", ec.get("crv"));
+        assertEquals(43, ((String) ec.get("x")).length());
+        Map<String, Object> rsaJwk = keys.get(1);
+        assertEquals("RS256", rsaJwk.get("alg"));
+        assertEquals("AQAB", rsaJwk.get("e"));
+        assertFalse(rsaJwk.containsKey("d"));
+    }
+}
@@ -0,0 +1,47 @@
+package com.openclassrooms.starterjwt.security;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+
+/**
+ * Writes key pairs the way JwtKeyRing expects them on disk.
+ */
+final class JwtTestKeys {
+
+    private JwtTestKeys() {
+    }
+
+    static KeyPair rsa() throws GeneralSecurityException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+
+    static KeyPair ec() throws GeneralSecurityException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return generator.generateKeyPair();
+    }
+
+    static void write(Path dir, String kid, KeyPair keyPair, boolean withPrivateKey) throws IOException {
+        Files.write(dir.resolve(kid + ".pub"),
+                pem("PUBLIC KEY", keyPair.getPublic().getEncoded()).getBytes(StandardCharsets.US_ASCII));
+        if (withPrivateKey) {
+            Files.write(dir.resolve(kid + ".key"),
+                    pem("PRIVATE KEY", keyPair.getPrivate().getEncoded()).getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    private static String pem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+    }
+}
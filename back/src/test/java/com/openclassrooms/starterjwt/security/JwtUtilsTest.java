@@ -3,29 +3,49 @@ package com.openclassrooms.starterjwt.security;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.PublicKey;
 import java.util.Date;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.security.core.Authentication;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import com.openclassrooms.starterjwt.security.jwt.AuthFailureRecorder;
+import com.openclassrooms.starterjwt.security.jwt.JwtKeyRing;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 class JwtUtilsTest {
 
     private JwtUtils jwtUtils;
 
+    private SimpleMeterRegistry meterRegistry;
+
+    @TempDir
+    Path keyDir;
+
     @BeforeEach
     void setUp() {
         jwtUtils = new JwtUtils();
         // Forcer le secret et l'expiration pour les tests
         ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "testSecret");
         ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60000); // 60 secondes
+        ReflectionTestUtils.setField(jwtUtils, "jwtStatelessMaxAgeMs", 30000L);
+        ReflectionTestUtils.setField(jwtUtils, "keyRing", new JwtKeyRing("", ""));
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(jwtUtils, "authFailures", new AuthFailureRecorder(meterRegistry, 10_000));
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
     }
 
     @Test
@@ -99,4 +119,254 @@ class JwtUtilsTest {
 
         assertFalse(jwtUtils.validateJwtToken(malformedToken));
     }
+
+    @Test
+    void shouldReturnClaims_WhenValidToken() {
+        String token = Jwts.builder()
+                .setSubject("user@example.com")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, "testSecret")
+                .compact();
+
+        Claims claims = jwtUtils.getClaimsFromJwtToken(token);
+
+        assertNotNull(claims);
+        assertEquals("user@example.com", claims.getSubject());
+    }
+
+    @Test
+    void shouldServeRepeatedTokenFromCache() {
+        String token = Jwts.builder()
+                .setSubject("user@example.com")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, "testSecret")
+                .compact();
+
+        Claims first = jwtUtils.getClaimsFromJwtToken(token);
+        // Un secret changé ferait échouer une seconde vérification : seul le cache peut répondre
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "otherSecret");
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+        Claims second = jwtUtils.getClaimsFromJwtToken(token);
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void shouldNotCacheInvalidToken() {
+        String token = Jwts.builder()
+                .setSubject("user")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, "wrongSecret")
+                .compact();
+
+        assertNull(jwtUtils.getClaimsFromJwtToken(token));
+        assertNull(jwtUtils.getClaimsFromJwtToken(token));
+    }
+
+    @Test
+    void shouldRejectToken_WhenCachedEntryExpired() throws InterruptedException {
+        String token = Jwts.builder()
+                .setSubject("user")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 2000))
+                .signWith(SignatureAlgorithm.HS512, "testSecret")
+                .compact();
+
+        assertNotNull(jwtUtils.getClaimsFromJwtToken(token));
+        Thread.sleep(2100);
+
+        assertNull(jwtUtils.getClaimsFromJwtToken(token));
+    }
+
+    @Test
+    void shouldBuildPrincipalFromClaims_WhenTokenRecent() {
+        UserDetailsImpl userDetails = new UserDetailsImpl(
+                1L, "test@example.com", "John", "Doe", true, "password123");
+        Authentication authentication = mock(Authentication.class);
+        when(authentication.getPrincipal()).thenReturn(userDetails);
+
+        Claims claims = jwtUtils.getClaimsFromJwtToken(jwtUtils.generateJwtToken(authentication));
+        UserDetailsImpl principal = jwtUtils.getPrincipalFromClaims(claims);
+
+        assertNotNull(principal);
+        assertEquals(1L, principal.getId());
+        assertEquals("test@example.com", principal.getUsername());
+        assertEquals("John", principal.getFirstName());
+        assertEquals("Doe", principal.getLastName());
+        assertTrue(principal.getAdmin());
+        assertNull(principal.getPassword());
+    }
+
+    @Test
+    void shouldNotBuildPrincipal_WhenTokenOlderThanMaxAge() {
+        String token = Jwts.builder()
+                .setSubject("test@example.com")
+                .claim("id", 1L)
+                .setIssuedAt(new Date(System.currentTimeMillis() - 40000))
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, "testSecret")
+                .compact();
+
+        assertNull(jwtUtils.getPrincipalFromClaims(jwtUtils.getClaimsFromJwtToken(token)));
+    }
+
+    @Test
+    void shouldNotBuildPrincipal_WhenTokenHasNoUserClaims() {
+        String token = Jwts.builder()
+                .setSubject("test@example.com")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, "testSecret")
+                .compact();
+
+        assertNull(jwtUtils.getPrincipalFromClaims(jwtUtils.getClaimsFromJwtToken(token)));
+    }
+
+    /*---------------- FAILURE COUNTERS ----------------*/
+    @Test
+    void shouldCountRejectedTokensByCause() {
+        String expired = Jwts.builder()
+                .setSubject("user")
+                .setExpiration(new Date(System.currentTimeMillis() - 1000))
+                .signWith(SignatureAlgorithm.HS512, "testSecret")
+                .compact();
+        String badSignature = Jwts.builder()
+                .setSubject("user")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, "wrongSecret")
+                .compact();
+
+        assertNull(jwtUtils.getClaimsFromJwtToken(expired));
+        assertNull(jwtUtils.getClaimsFromJwtToken(badSignature));
+        assertNull(jwtUtils.getClaimsFromJwtToken(badSignature));
+        assertNull(jwtUtils.getClaimsFromJwtToken("not.a.jwt"));
+
+        assertEquals(1.0, failures("expired"));
+        assertEquals(2.0, failures("bad_signature"));
+        assertEquals(1.0, failures("malformed"));
+    }
+
+    /*---------------- ASYMMETRIC KEYS ----------------*/
+    @Test
+    void shouldSignWithActiveKid_WhenKeyRingConfigured() throws Exception {
+        // Given
+        JwtTestKeys.write(keyDir, "2026-10", JwtTestKeys.ec(), true);
+        useKeyRing();
+
+        // When
+        String token = jwtUtils.generateJwtToken(authentication());
+
+        // Then
+        JwsHeader<?> header = Jwts.parser()
+                .setSigningKey(keyRingKey("2026-10"))
+                .parseClaimsJws(token).getHeader();
+        assertEquals("2026-10", header.getKeyId());
+        assertEquals("ES256", header.getAlgorithm());
+        assertEquals("test@example.com", jwtUtils.getClaimsFromJwtToken(token).getSubject());
+    }
+
+    @Test
+    void shouldVerifyTokensOfRetiredKey_AfterRotation() throws Exception {
+        // Given - un token signé avec l'ancienne clé RSA
+        KeyPair retired = JwtTestKeys.rsa();
+        JwtTestKeys.write(keyDir, "2026-09", retired, true);
+        JwtKeyRing keyRing = useKeyRing();
+        String oldToken = jwtUtils.generateJwtToken(authentication());
+
+        // When - rotation : nouvelle clé EC, l'ancienne ne sert plus qu'à vérifier
+        JwtTestKeys.write(keyDir, "2026-10", JwtTestKeys.ec(), true);
+        Files.delete(keyDir.resolve("2026-09.key"));
+        keyRing.reload();
+        String newToken = jwtUtils.generateJwtToken(authentication());
+
+        // Then
+        assertNotNull(jwtUtils.getClaimsFromJwtToken(oldToken));
+        assertNotNull(jwtUtils.getClaimsFromJwtToken(newToken));
+        assertEquals("2026-10", Jwts.parser().setSigningKey(keyRingKey("2026-10"))
+                .parseClaimsJws(newToken).getHeader().getKeyId());
+    }
+
+    @Test
+    void shouldRejectCachedToken_WhenItsKeyIsRemoved() throws Exception {
+        // Given
+        JwtTestKeys.write(keyDir, "compromised", JwtTestKeys.ec(), true);
+        JwtTestKeys.write(keyDir, "next", JwtTestKeys.ec(), false);
+        JwtKeyRing keyRing = useKeyRing();
+        String token = jwtUtils.generateJwtToken(authentication());
+        assertNotNull(jwtUtils.getClaimsFromJwtToken(token));
+
+        // When
+        Files.delete(keyDir.resolve("compromised.key"));
+        Files.delete(keyDir.resolve("compromised.pub"));
+        keyRing.reload();
+
+        // Then - le cache ne répond plus pour une clé supprimée
+        assertNull(jwtUtils.getClaimsFromJwtToken(token));
+    }
+
+    @Test
+    void shouldRejectToken_WhenKidUnknownOrMissing() throws Exception {
+        JwtTestKeys.write(keyDir, "known", JwtTestKeys.ec(), true);
+        useKeyRing();
+        KeyPair stranger = JwtTestKeys.ec();
+
+        String unknownKid = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, "unknown")
+                .setSubject("user")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.ES256, stranger.getPrivate())
+                .compact();
+        String hmac = Jwts.builder()
+                .setSubject("user")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, "testSecret")
+                .compact();
+
+        assertNull(jwtUtils.getClaimsFromJwtToken(unknownKid));
+        assertNull(jwtUtils.getClaimsFromJwtToken(hmac));
+    }
+
+    @Test
+    void shouldRejectToken_WhenAlgorithmDoesNotMatchKey() throws Exception {
+        // Given - une clé RS256 publiée, un token HS256 qui s'en sert comme secret
+        KeyPair rsa = JwtTestKeys.rsa();
+        JwtTestKeys.write(keyDir, "rsa", rsa, true);
+        useKeyRing();
+
+        String forged = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, "rsa")
+                .setSubject("admin@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS256, rsa.getPublic().getEncoded())
+                .compact();
+
+        assertNull(jwtUtils.getClaimsFromJwtToken(forged));
+    }
+
+    private double failures(String cause) {
+        return meterRegistry.get("auth.failures").tag("cause", cause).counter().count();
+    }
+
+    private JwtKeyRing useKeyRing() {
+        JwtKeyRing keyRing = new JwtKeyRing(keyDir.toString(), "");
+        keyRing.reload();
+        ReflectionTestUtils.setField(jwtUtils, "keyRing", keyRing);
+        return keyRing;
+    }
+
+    private PublicKey keyRingKey(String kid) {
+        JwtKeyRing keyRing = (JwtKeyRing) ReflectionTestUtils.getField(jwtUtils, "keyRing");
+        return keyRing.getKey(kid).getPublicKey();
+    }
+
+    private Authentication authentication() {
+        UserDetailsImpl userDetails = new UserDetailsImpl(
+                1L, "test@example.com", "John", "Doe", false, "password123");
+        Authentication authentication = mock(Authentication.class);
+        when(authentication.getPrincipal()).thenReturn(userDetails);
+        return authentication;
+    }
 }
@@ -0,0 +1,93 @@
+package com.openclassrooms.starterjwt.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.openclassrooms.starterjwt.security.jwt.AuthFailureRecorder;
+import com.openclassrooms.starterjwt.security.jwt.JwtKeyRing;
+import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Lancer avec -Dbenchmark=true
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JwtVerificationBenchmarkTest {
+
+    private static final int WARMUP_TOKENS = 2_000;
+    private static final int MEASURED_TOKENS = 5_000;
+
+    @TempDir
+    Path keyDir;
+
+    /*---------------- VERIFICATION COST PER ALGORITHM ----------------*/
+    @Test
+    void benchmarkVerificationPerAlgorithm() throws Exception {
+        measure("HS512", null);
+        measure("RS256", JwtTestKeys.rsa());
+        measure("ES256", JwtTestKeys.ec());
+    }
+
+    private void measure(String algorithm, KeyPair keyPair) throws Exception {
+        // Given - des tokens tous différents, pour ne jamais répondre depuis le cache
+        JwtUtils jwtUtils = jwtUtils(algorithm, keyPair);
+        Authentication authentication = mock(Authentication.class);
+        when(authentication.getPrincipal()).thenReturn(new UserDetailsImpl(
+                1L, "bench@example.com", "Bench", "Mark", false, null));
+
+        List<String> tokens = new ArrayList<>();
+        long signStart = System.nanoTime();
+        for (int i = 0; i < WARMUP_TOKENS + MEASURED_TOKENS; i++) {
+            tokens.add(jwtUtils.generateJwtToken(authentication));
+        }
+        long signNs = System.nanoTime() - signStart;
+
+        for (String token : tokens.subList(0, WARMUP_TOKENS)) {
+            assertNotNull(jwtUtils.getClaimsFromJwtToken(token));
+        }
+
+        // When
+        long start = System.nanoTime();
+        for (String token : tokens.subList(WARMUP_TOKENS, tokens.size())) {
+            assertNotNull(jwtUtils.getClaimsFromJwtToken(token));
+        }
+        long verifyNs = System.nanoTime() - start;
+
+        // Then
+        System.out.printf("%s: %.1f us/verification, %.1f us/signature%n", algorithm,
+                verifyNs / 1000.0 / MEASURED_TOKENS,
+                signNs / 1000.0 / tokens.size());
+    }
+
+    private JwtUtils jwtUtils(String algorithm, KeyPair keyPair) throws Exception {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "benchmarkSecret");
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60000);
+        ReflectionTestUtils.setField(jwtUtils, "authFailures", new AuthFailureRecorder(new SimpleMeterRegistry(), 10_000));
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+
+        JwtKeyRing keyRing;
+        if (keyPair == null) {
+            keyRing = new JwtKeyRing("", "");
+        } else {
+            Path dir = Files.createDirectory(keyDir.resolve(algorithm));
+            JwtTestKeys.write(dir, algorithm, keyPair, true);
+            keyRing = new JwtKeyRing(dir.toString(), "");
+            keyRing.reload();
+        }
+        ReflectionTestUtils.setField(jwtUtils, "keyRing", keyRing);
+        return jwtUtils;
+    }
+}
@@ -0,0 +1,127 @@
+package com.openclassrooms.starterjwt.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.Date;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.openclassrooms.starterjwt.exception.InvalidRefreshTokenException;
+import com.openclassrooms.starterjwt.models.RefreshToken;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.RefreshTokenRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.services.RefreshTokenService;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, userRepository, 60_000);
+    }
+
+    /*---------------- ISSUE ----------------*/
+    @Test
+    void shouldStoreOnlyTheHash_WhenIssuing() {
+        // When
+        String rawToken = refreshTokenService.issue(1L);
+
+        // Then
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertNotNull(rawToken);
+        assertNotEquals(rawToken, saved.getValue().getTokenHash());
+        assertEquals(1L, saved.getValue().getUserId());
+        assertFalse(saved.getValue().isUsed());
+        assertTrue(saved.getValue().getExpiresAt().after(new Date()));
+    }
+
+    /*---------------- ROTATE ----------------*/
+    @Test
+    void shouldRotateWithinTheSameFamily() {
+        // Given
+        RefreshToken current = stored("family-1", false, 60_000);
+        User user = new User().setId(1L).setEmail("test@example.com");
+        when(refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.of(current));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        // When
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate("raw-token");
+
+        // Then - l'ancien token est consommé, le nouveau reste dans la famille
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertTrue(current.isUsed());
+        assertEquals("family-1", saved.getValue().getFamily());
+        assertSame(user, rotation.getUser());
+        assertNotEquals("raw-token", rotation.getRefreshToken());
+    }
+
+    @Test
+    void shouldRevokeTheFamily_WhenTokenIsReused() {
+        // Given - un token déjà échangé
+        when(refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.of(stored("family-1", true, 60_000)));
+
+        // When & Then
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("raw-token"));
+        verify(refreshTokenRepository).deleteFamily("family-1");
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldReject_WhenTokenIsExpired() {
+        // Given
+        RefreshToken expired = stored("family-1", false, -1_000);
+        when(refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.of(expired));
+
+        // When & Then
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("raw-token"));
+        verify(refreshTokenRepository).delete(expired);
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldReject_WhenTokenIsUnknown() {
+        when(refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.empty());
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("raw-token"));
+        verifyNoInteractions(userRepository);
+    }
+
+    /*---------------- REVOKE ----------------*/
+    @Test
+    void shouldRevokeTheFamily_OnLogout() {
+        when(refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.of(stored("family-1", false, 60_000)));
+
+        refreshTokenService.revoke("raw-token");
+
+        verify(refreshTokenRepository).deleteFamily("family-1");
+    }
+
+    private RefreshToken stored(String family, boolean used, long expiresInMs) {
+        return new RefreshToken()
+                .setId(10L)
+                .setTokenHash("hash")
+                .setFamily(family)
+                .setUserId(1L)
+                .setUsed(used)
+                .setExpiresAt(new Date(System.currentTimeMillis() + expiresInMs));
+    }
+}
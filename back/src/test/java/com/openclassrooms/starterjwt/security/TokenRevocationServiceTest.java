@@ -0,0 +1,96 @@
+package com.openclassrooms.starterjwt.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.openclassrooms.starterjwt.models.RevokedToken;
+import com.openclassrooms.starterjwt.repository.RevokedTokenRepository;
+import com.openclassrooms.starterjwt.security.services.TokenRevocationService;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationService = new TokenRevocationService(revokedTokenRepository, 1000, 0.001);
+    }
+
+    /*---------------- NEVER REVOKED ----------------*/
+    @Test
+    void shouldAnswerWithoutDatabase_WhenTokenNeverRevoked() {
+        // Given
+        when(revokedTokenRepository.findActiveJtis(any())).thenReturn(Arrays.asList("revoked-1", "revoked-2"));
+        tokenRevocationService.rebuild();
+
+        // When - des milliers de tokens jamais révoqués
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (tokenRevocationService.isRevoked(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+
+        // Then - la base n'est consultée que pour les rares faux positifs du filtre
+        assertEquals(0, falsePositives);
+        verify(revokedTokenRepository, atMost(50)).existsById(any());
+    }
+
+    @Test
+    void shouldNotBeRevoked_WhenTokenHasNoId() {
+        when(revokedTokenRepository.findActiveJtis(any())).thenReturn(new ArrayList<>());
+        tokenRevocationService.rebuild();
+
+        assertFalse(tokenRevocationService.isRevoked(null));
+        verify(revokedTokenRepository, never()).existsById(any());
+    }
+
+    /*---------------- REVOKED ----------------*/
+    @Test
+    void shouldConfirmRevocation_WhenTokenRevoked() {
+        // Given
+        when(revokedTokenRepository.findActiveJtis(any())).thenReturn(new ArrayList<>());
+        tokenRevocationService.rebuild();
+        Date expiresAt = new Date(System.currentTimeMillis() + 60000);
+
+        // When
+        tokenRevocationService.revoke("jti-1", expiresAt);
+        when(revokedTokenRepository.existsById("jti-1")).thenReturn(true);
+
+        // Then
+        assertTrue(tokenRevocationService.isRevoked("jti-1"));
+        verify(revokedTokenRepository).save(new RevokedToken("jti-1", expiresAt));
+    }
+
+    @Test
+    void shouldReloadRevocationsAndPurgeExpired_WhenRebuilding() {
+        // Given - révocation faite par une autre instance
+        List<String> active = Arrays.asList("jti-other");
+        when(revokedTokenRepository.findActiveJtis(any())).thenReturn(active);
+        when(revokedTokenRepository.existsById("jti-other")).thenReturn(true);
+
+        // When
+        tokenRevocationService.rebuild();
+
+        // Then
+        verify(revokedTokenRepository).deleteExpired(any());
+        assertTrue(tokenRevocationService.isRevoked("jti-other"));
+    }
+}
@@ -0,0 +1,93 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Lancer avec -Dbenchmark=true
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SessionBulkInsertBenchmarkTest {
+
+    private static final int WARMUP_SESSIONS = 10_000;
+    private static final int SESSIONS = 100_000;
+    private static final int PER_TRANSACTION = 1_000;
+    private static final int BATCH_SIZE = 50;
+    // Marque les sessions du benchmark : la base est partagée, on ne supprime que celles-là
+    private static final String DESCRIPTION = "Bulk insert benchmark";
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        deleteAll();
+    }
+
+    /*---------------- 100K SESSIONS ----------------*/
+    @Test
+    void benchmarkBulkInserts() {
+        // Préchauffage
+        insert(WARMUP_SESSIONS, BATCH_SIZE);
+        deleteAll();
+
+        // Un flush par ligne : un aller-retour par INSERT, comme avec IDENTITY
+        measure("row by row", 1);
+        deleteAll();
+
+        measure("batched", BATCH_SIZE);
+    }
+
+    private void measure(String label, int flushEvery) {
+        // When
+        long start = System.nanoTime();
+        insert(SESSIONS, flushEvery);
+        long elapsedNs = System.nanoTime() - start;
+
+        // Then
+        Long inserted = transactionTemplate.execute(status -> entityManager
+                .createQuery("select count(s) from Session s where s.description = :description", Long.class)
+                .setParameter("description", DESCRIPTION)
+                .getSingleResult());
+        assertThat(inserted).isEqualTo(SESSIONS);
+        System.out.printf("%s: %d sessions in %d ms (%.0f rows/s)%n", label, SESSIONS,
+                elapsedNs / 1_000_000, SESSIONS / (elapsedNs / 1e9));
+    }
+
+    private void insert(int count, int flushEvery) {
+        for (int offset = 0; offset < count; offset += PER_TRANSACTION) {
+            int first = offset;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = first; i < first + PER_TRANSACTION; i++) {
+                    entityManager.persist(new Session()
+                            .setName("Bulk " + i)
+                            .setDescription(DESCRIPTION)
+                            .setDate(new Date(i * 60_000L)));
+                    if ((i + 1) % flushEvery == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                }
+            });
+        }
+    }
+
+    private void deleteAll() {
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.createQuery("delete from Session s where s.description = :description")
+                        .setParameter("description", DESCRIPTION)
+                        .executeUpdate());
+    }
+}
@@ -0,0 +1,218 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ConflictException;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class SessionCapacityConcurrencyIntegrationTest {
+
+    private static final int CAPACITY = 50;
+    private static final int USERS = 500;
+    private static final int ATTEMPTS_PER_USER = 4;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Session session;
+
+    private List<User> users;
+
+    private Teacher teacher;
+
+    @BeforeEach
+    void setUp() {
+        teacher = teacherRepository.save(new Teacher().setFirstName("John").setLastName("Doe"));
+        session = sessionRepository.save(new Session()
+                .setName("Flash Yoga")
+                .setDescription("Very popular session")
+                .setDate(new Date())
+                .setCapacity(CAPACITY)
+                .setTeacher(teacher)
+                .setUsers(new ArrayList<>()));
+
+        users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(userRepository.save(new User()
+                    .setEmail("flash" + i + "@example.com")
+                    .setFirstName("Flash")
+                    .setLastName("N" + i)
+                    .setPassword("password123")
+                    .setAdmin(false)));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        // La base est partagée : on ne supprime que ce que le test a créé
+        sessionRepository.deleteById(session.getId());
+        userRepository.deleteAllInBatch(users);
+        teacherRepository.deleteById(teacher.getId());
+    }
+
+    /*---------------- FLASH SIGN-UP ----------------*/
+    @Test
+    void shouldNeverOverbookNorDuplicate_WhenEnrolmentsRace() throws Exception {
+        // Given - chaque user tente plusieurs fois, toutes les tentatives partent en même temps
+        List<Long> attempts = new ArrayList<>();
+        for (User user : users) {
+            for (int i = 0; i < ATTEMPTS_PER_USER; i++) {
+                attempts.add(user.getId());
+            }
+        }
+        Collections.shuffle(attempts);
+
+        AtomicInteger enrolled = new AtomicInteger();
+        AtomicInteger full = new AtomicInteger();
+        AtomicInteger duplicate = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        // When
+        List<Future<?>> futures = new ArrayList<>();
+        for (Long userId : attempts) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    sessionService.participate(session.getId(), userId);
+                    enrolled.incrementAndGet();
+                } catch (ConflictException e) {
+                    full.incrementAndGet();
+                } catch (BadRequestException e) {
+                    duplicate.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            // Toute autre exception (deadlock, timeout...) fait échouer le test
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM PARTICIPATE WHERE session_id = ?", Integer.class, session.getId());
+        Integer distinctUsers = jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT user_id) FROM PARTICIPATE WHERE session_id = ?", Integer.class, session.getId());
+        Integer seatsTaken = jdbcTemplate.queryForObject(
+                "SELECT seats_taken FROM SESSIONS WHERE id = ?", Integer.class, session.getId());
+
+        assertThat(enrolled.get()).isEqualTo(CAPACITY);
+        assertThat(enrolled.get() + full.get() + duplicate.get()).isEqualTo(attempts.size());
+        assertThat(rows).isEqualTo(CAPACITY);
+        assertThat(distinctUsers).isEqualTo(CAPACITY);
+        assertThat(seatsTaken).isEqualTo(CAPACITY);
+    }
+
+    /*---------------- WITHDRAW ----------------*/
+    @Test
+    void shouldFreeSeat_WhenParticipantWithdraws() {
+        // Given - session pleine
+        session.setCapacity(1);
+        sessionRepository.save(session);
+        sessionService.participate(session.getId(), users.get(0).getId());
+
+        // When
+        sessionService.noLongerParticipate(session.getId(), users.get(0).getId());
+        sessionService.participate(session.getId(), users.get(1).getId());
+
+        // Then
+        List<Long> participants = sessionRepository.findParticipantIds(session.getId());
+        assertThat(participants).containsExactly(users.get(1).getId());
+    }
+
+    /*---------------- CREATE / UPDATE ----------------*/
+    @Test
+    void shouldRejectCreate_WhenMoreParticipantsThanCapacity() {
+        // Given
+        Session overbooked = new Session()
+                .setName("Overbooked Yoga")
+                .setDescription("Two participants for one seat")
+                .setDate(new Date())
+                .setCapacity(1)
+                .setTeacher(teacher)
+                .setUsers(new ArrayList<>(users.subList(0, 2)));
+
+        // When & Then - rien n'est enregistré
+        assertThatThrownBy(() -> sessionService.create(overbooked)).isInstanceOf(ConflictException.class);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM SESSIONS WHERE name = ?", Integer.class, "Overbooked Yoga")).isZero();
+    }
+
+    @Test
+    void shouldRejectUpdate_WhenMoreParticipantsThanCapacity() {
+        // Given
+        session.setCapacity(1);
+        sessionRepository.save(session);
+
+        // When & Then
+        assertThatThrownBy(() -> sessionService.update(session.getId(), copyOfSession(1, users.subList(0, 2))))
+                .isInstanceOf(ConflictException.class);
+        assertThat(sessionRepository.findParticipantIds(session.getId())).isEmpty();
+    }
+
+    @Test
+    void shouldRejectUpdate_WhenCapacityBelowSeatsTaken() {
+        // Given - deux places prises
+        sessionService.participate(session.getId(), users.get(0).getId());
+        sessionService.participate(session.getId(), users.get(1).getId());
+
+        // When & Then - la capacité n'est pas abaissée
+        assertThatThrownBy(() -> sessionService.update(session.getId(), copyOfSession(1, users.subList(0, 2))))
+                .isInstanceOf(ConflictException.class);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT capacity FROM SESSIONS WHERE id = ?", Integer.class, session.getId())).isEqualTo(CAPACITY);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT seats_taken FROM SESSIONS WHERE id = ?", Integer.class, session.getId())).isEqualTo(2);
+    }
+
+    private Session copyOfSession(int capacity, List<User> participants) {
+        return new Session()
+                .setName(session.getName())
+                .setDescription(session.getDescription())
+                .setDate(session.getDate())
+                .setCapacity(capacity)
+                .setTeacher(teacher)
+                .setUsers(new ArrayList<>(participants));
+    }
+}
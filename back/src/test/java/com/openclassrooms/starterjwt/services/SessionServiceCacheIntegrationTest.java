@@ -0,0 +1,215 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class SessionServiceCacheIntegrationTest {
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Session testSession;
+
+    private User testUser;
+
+    private Teacher testTeacher;
+
+    // La base est partagée : on ne supprime que ce que le test a créé
+    private final List<Long> sessionIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).invalidate());
+
+        testTeacher = teacherRepository.save(new Teacher().setFirstName("John").setLastName("Doe"));
+        testUser = userRepository.save(new User()
+                .setEmail("cache@example.com")
+                .setFirstName("Sylvie")
+                .setLastName("Yogi")
+                .setPassword("password123")
+                .setAdmin(false));
+        testSession = sessionRepository.save(new Session()
+                .setName("Morning Yoga")
+                .setDescription("Relaxing yoga session")
+                .setDate(new Date())
+                .setTeacher(testTeacher)
+                .setUsers(new ArrayList<>()));
+        sessionIds.add(testSession.getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionIds.stream().filter(sessionRepository::existsById).forEach(sessionRepository::deleteById);
+        sessionIds.clear();
+        userRepository.deleteById(testUser.getId());
+        teacherRepository.deleteById(testTeacher.getId());
+    }
+
+    /*---------------- READ THROUGH ----------------*/
+    @Test
+    void shouldServeRepeatedReadsFromCache() {
+        // Given - les statistiques Caffeine sont cumulées depuis le démarrage
+        CacheStats before = stats(SessionService.SESSION_CACHE);
+
+        // When
+        SessionDto first = sessionService.getDtoById(testSession.getId());
+        SessionDto second = sessionService.getDtoById(testSession.getId());
+        List<SessionDto> all = sessionService.findAllDtos();
+        List<SessionDto> allAgain = sessionService.findAllDtos();
+
+        // Then - même instance : la seconde lecture n'a pas touché la base
+        assertThat(second).isSameAs(first);
+        assertThat(allAgain).isSameAs(all);
+
+        CacheStats stats = stats(SessionService.SESSION_CACHE).minus(before);
+        assertThat(stats.hitCount()).isEqualTo(1);
+        assertThat(stats.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCacheReadOnlySnapshots() {
+        // When
+        SessionDto cached = sessionService.getDtoById(testSession.getId());
+        List<SessionDto> all = sessionService.findAllDtos();
+
+        // Then - partagés entre les requêtes, ils ne peuvent pas être modifiés en place
+        assertThatThrownBy(() -> cached.getUsers().add(testUser.getId()))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> all.add(cached))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void shouldNotCacheMissingSession() {
+        // When
+        sessionService.getDtoById(99999L);
+
+        // Then
+        assertThat(cache(SessionService.SESSION_CACHE).get(99999L)).isNull();
+    }
+
+    /*---------------- INVALIDATION ----------------*/
+    @Test
+    void shouldEvictSession_WhenParticipationChanges() {
+        // Given
+        sessionService.getDtoById(testSession.getId());
+        sessionService.findAllDtos();
+
+        // When
+        sessionService.participate(testSession.getId(), testUser.getId());
+
+        // Then
+        assertThat(cache(SessionService.SESSION_CACHE).get(testSession.getId())).isNull();
+        assertThat(cache(SessionService.SESSIONS_CACHE).get("all")).isNull();
+        assertThat(sessionService.getDtoById(testSession.getId()).getUsers())
+                .containsExactly(testUser.getId());
+    }
+
+    @Test
+    void shouldEvictOnlyAfterCommit() {
+        // Given
+        sessionService.getDtoById(testSession.getId());
+
+        // When - la participation est enregistrée mais pas encore validée
+        transactionTemplate.executeWithoutResult(status -> {
+            sessionService.participate(testSession.getId(), testUser.getId());
+
+            // Then - un lecteur concurrent ne peut pas remettre en cache l'ancienne version avant le commit
+            assertThat(cache(SessionService.SESSION_CACHE).get(testSession.getId())).isNotNull();
+        });
+
+        assertThat(cache(SessionService.SESSION_CACHE).get(testSession.getId())).isNull();
+    }
+
+    @Test
+    void shouldKeepCache_WhenTransactionRollsBack() {
+        // Given
+        SessionDto cached = sessionService.getDtoById(testSession.getId());
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            sessionService.participate(testSession.getId(), testUser.getId());
+            status.setRollbackOnly();
+        });
+
+        // Then - rien n'a changé en base, l'entrée reste valable
+        assertThat(sessionService.getDtoById(testSession.getId())).isSameAs(cached);
+    }
+
+    @Test
+    void shouldEvictSessionList_WhenSessionCreated() {
+        // Given
+        int before = sessionService.findAllDtos().size();
+
+        // When
+        Session created = sessionService.create(new Session()
+                .setName("Evening Yoga")
+                .setDescription("Relaxing evening session")
+                .setDate(new Date())
+                .setUsers(new ArrayList<>()));
+        sessionIds.add(created.getId());
+
+        // Then
+        assertThat(sessionService.findAllDtos()).hasSize(before + 1);
+    }
+
+    @Test
+    void shouldEvictSession_WhenSessionDeleted() {
+        // Given
+        sessionService.getDtoById(testSession.getId());
+
+        // When
+        sessionService.delete(testSession.getId());
+
+        // Then
+        assertThat(sessionService.getDtoById(testSession.getId())).isNull();
+    }
+
+    private Cache cache(String name) {
+        return cacheManager.getCache(name);
+    }
+
+    private CacheStats stats(String name) {
+        Cache target = ((TransactionAwareCacheDecorator) cache(name)).getTargetCache();
+        return ((CaffeineCache) target).getNativeCache().stats();
+    }
+}
@@ -1,9 +1,17 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionParticipantRow;
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ConflictException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.payload.request.SessionCursor;
+import com.openclassrooms.starterjwt.payload.request.SessionFilter;
+import com.openclassrooms.starterjwt.payload.response.BulkParticipationResponse;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 import org.junit.jupiter.api.Test;
@@ -11,14 +19,20 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.ArrayList;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +44,9 @@ public class SessionServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private SessionMapper sessionMapper;
+
     @InjectMocks
     private SessionService sessionService;
 
@@ -110,7 +127,7 @@ public class SessionServiceTest {
         // expectedSessions.size());
 
         // Configuration du mock
-        when(sessionRepository.findAll()).thenReturn(expectedSessions);
+        when(sessionRepository.findAllWithParticipants()).thenReturn(expectedSessions);
 
         // When - Exécution
         List<Session> actualSessions = sessionService.findAll();
@@ -127,7 +144,7 @@ public class SessionServiceTest {
         // actualSessions.size());
 
         // Vérification de l'appel au repository
-        verify(sessionRepository, times(1)).findAll();
+        verify(sessionRepository, times(1)).findAllWithParticipants();
     }
 
     /*-------------------------- GET SESSION ------------------------------ */
@@ -146,7 +163,7 @@ public class SessionServiceTest {
         // System.out.println("Session attendue: " + expectedSession.getName());
 
         // Configuration du mock
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(expectedSession));
+        when(sessionRepository.findWithParticipantsById(sessionId)).thenReturn(Optional.of(expectedSession));
 
         // When - Exécution
         Session actualSession = sessionService.getById(sessionId);
@@ -160,7 +177,7 @@ public class SessionServiceTest {
         // System.out.println("Session trouvée: " + actualSession.getName());
 
         // Vérification de l'appel au repository
-        verify(sessionRepository, times(1)).findById(sessionId);
+        verify(sessionRepository, times(1)).findWithParticipantsById(sessionId);
     }
 
     /*-------------------------- SESSION NOT FOUND ------------------------------ */
@@ -174,7 +191,7 @@ public class SessionServiceTest {
         // System.out.println("Session ID recherché (inexistant): " + sessionId);
 
         // Configuration du mock - retourne Optional.empty()
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.empty());
+        when(sessionRepository.findWithParticipantsById(sessionId)).thenReturn(Optional.empty());
 
         // When - Exécution
         Session actualSession = sessionService.getById(sessionId);
@@ -185,7 +202,7 @@ public class SessionServiceTest {
         // System.out.println("Résultat: null comme attendu");
 
         // Vérification de l'appel au repository
-        verify(sessionRepository, times(1)).findById(sessionId);
+        verify(sessionRepository, times(1)).findWithParticipantsById(sessionId);
     }
 
     /*-------------------------- UPDATE SESSION ------------------------------ */
@@ -209,6 +226,7 @@ public class SessionServiceTest {
 
         // Configuration du mock
         when(sessionRepository.save(inputSession)).thenReturn(savedSession);
+        when(sessionRepository.recountSeats(sessionId)).thenReturn(1);
 
         // When - Exécution
         Session result = sessionService.update(sessionId, inputSession);
@@ -228,6 +246,20 @@ public class SessionServiceTest {
         verify(sessionRepository, times(1)).save(inputSession);
     }
 
+    /*-------------------------- UPDATE SESSION (OVERBOOKED) ------------------------------ */
+
+    @Test
+    void shouldThrowConflictException_WhenUpdateOverbooksSession() {
+        // Given - le recomptage refuse plus de participants que la capacité
+        Long sessionId = 1L;
+        Session inputSession = new Session().setCapacity(1);
+        when(sessionRepository.save(inputSession)).thenReturn(inputSession);
+        when(sessionRepository.recountSeats(sessionId)).thenReturn(0);
+
+        // When & Then
+        assertThrows(ConflictException.class, () -> sessionService.update(sessionId, inputSession));
+    }
+
     /*-------------------------- PARTICIPATE SESSION (SUCCES) ------------------------------ */
 
     @Test
@@ -236,43 +268,19 @@ public class SessionServiceTest {
         Long sessionId = 1L;
         Long userId = 1L;
 
-        User user = new User();
-        user.setId(userId);
-        user.setEmail("test@example.com");
-
-        Session session = new Session();
-        session.setId(sessionId);
-        session.setName("Yoga Session");
-
-        // Liste vide au début
-        session.setUsers(new ArrayList<>());
-
-        Session savedSession = new Session();
-        savedSession.setId(sessionId);
-        savedSession.setName("Yoga Session");
-
-        // System.out.println("=== TEST PARTICIPATE - SUCCESS ===");
-        // System.out.println("Session ID: " + sessionId + ", User ID: " + userId);
-        // System.out.println("Participants avant: " + session.getUsers().size());
-
-        // Configuration des mocks
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(sessionRepository.save(session)).thenReturn(savedSession);
+        // Configuration des mocks - une place prise, une ligne insérée
+        when(sessionRepository.takeSeat(sessionId)).thenReturn(1);
+        when(sessionRepository.addParticipant(sessionId, userId)).thenReturn(1);
 
         // When - Exécution
         sessionService.participate(sessionId, userId);
 
-        // Then - Vérifications
-        assertEquals(1, session.getUsers().size());
-        assertTrue(session.getUsers().contains(user));
-
-        // System.out.println("Participants après: " + session.getUsers().size());
-
-        // Vérifications des appels aux repositories
-        verify(sessionRepository, times(1)).findById(sessionId);
-        verify(userRepository, times(1)).findById(userId);
-        verify(sessionRepository, times(1)).save(session);
+        // Then - Aucun chargement de la session ni du user
+        verify(sessionRepository, times(1)).takeSeat(sessionId);
+        verify(sessionRepository, times(1)).addParticipant(sessionId, userId);
+        verify(sessionRepository, never()).findWithParticipantsById(any());
+        verify(userRepository, never()).findById(any());
+        verify(sessionRepository, never()).save(any());
     }
 
     /*-------------------------- SESSION NOT FOUND (PARTICIPATE) ------------------------------ */
@@ -283,31 +291,17 @@ public class SessionServiceTest {
         Long sessionId = 999L;
         Long userId = 1L;
 
-        // System.out.println("=== TEST PARTICIPATE - SESSION NOT FOUND ===");
-        // System.out.println("Session ID inexistant: " + sessionId);
-
-        // Configuration des mocks - session inexistante
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.empty());
-
-        // Peu importe le résultat
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        // Configuration des mocks - aucune place prise, session inexistante
+        when(sessionRepository.takeSeat(sessionId)).thenReturn(0);
+        when(sessionRepository.existsById(sessionId)).thenReturn(false);
 
         // When & Then - Vérification que l'exception est levée
-        NotFoundException exception = assertThrows(NotFoundException.class, () -> {
+        assertThrows(NotFoundException.class, () -> {
             sessionService.participate(sessionId, userId);
         });
 
-        // System.out.println("Exception NotFoundException levée comme attendu");
-
-        // Vérifications des appels
-        verify(sessionRepository, times(1)).findById(sessionId);
-
-        // Sera appelé aussi
-
-        verify(userRepository, times(1)).findById(userId);
-
-        // Save ne doit pas être appelé
-        verify(sessionRepository, never()).save(any());
+        // Aucune insertion tentée
+        verify(sessionRepository, never()).addParticipant(any(), any());
     }
 
     /*-------------------------- USER NOT FOUND (PARTICIPATE) ------------------------------ */
@@ -318,30 +312,17 @@ public class SessionServiceTest {
         Long sessionId = 1L;
         Long userId = 999L;
 
-        Session session = new Session();
-        session.setId(sessionId);
-        session.setName("Yoga Session");
-        session.setUsers(new ArrayList<>());
-
-        // System.out.println("=== TEST PARTICIPATE - USER NOT FOUND ===");
-        // System.out.println("User ID inexistant: " + userId);
-
-        // Configuration des mocks - user inexistant
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        // Configuration des mocks - rien inséré, user inexistant
+        when(sessionRepository.takeSeat(sessionId)).thenReturn(1);
+        when(sessionRepository.addParticipant(sessionId, userId)).thenReturn(0);
+        when(userRepository.existsById(userId)).thenReturn(false);
 
         // When & Then - Vérification que l'exception est levée
-        NotFoundException exception = assertThrows(NotFoundException.class, () -> {
+        assertThrows(NotFoundException.class, () -> {
             sessionService.participate(sessionId, userId);
         });
 
-        // System.out.println("Exception NotFoundException levée comme attendu ");
-
-        // Vérifications des appels
-        verify(sessionRepository, times(1)).findById(sessionId);
-        verify(userRepository, times(1)).findById(userId);
-
-        // Save ne doit pas être appelé
+        verify(userRepository, times(1)).existsById(userId);
         verify(sessionRepository, never()).save(any());
     }
 
@@ -353,87 +334,58 @@ public class SessionServiceTest {
         Long sessionId = 1L;
         Long userId = 1L;
 
-        User user = new User();
-        user.setId(userId);
-        user.setEmail("test@example.com");
-
-        Session session = new Session();
-        session.setId(sessionId);
-        session.setName("Yoga Session");
-        session.setUsers(new ArrayList<>());
-
-        // User DÉJÀ dans la liste
-        session.getUsers().add(user);
-
-        // System.out.println("=== TEST PARTICIPATE - ALREADY PARTICIPATING ===");
-        // System.out.println("User déjà participant, participants actuels: " +
-        // session.getUsers().size());
-
-        // Configuration des mocks
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        // Configuration des mocks - session et user existent, la ligne existe déjà
+        when(sessionRepository.takeSeat(sessionId)).thenReturn(1);
+        when(sessionRepository.addParticipant(sessionId, userId)).thenReturn(0);
+        when(userRepository.existsById(userId)).thenReturn(true);
 
         // When & Then - Vérification que l'exception est levée
-        BadRequestException exception = assertThrows(BadRequestException.class, () -> {
+        assertThrows(BadRequestException.class, () -> {
             sessionService.participate(sessionId, userId);
         });
 
-        // System.out.println("Exception BadRequestException levée comme attendu");
-
-        // Vérifications
-        // Pas d'ajout supplémentaire
-        assertEquals(1, session.getUsers().size());
-
-        verify(sessionRepository, times(1)).findById(sessionId);
-        verify(userRepository, times(1)).findById(userId);
-
-        // Save ne doit pas être appelé
         verify(sessionRepository, never()).save(any());
     }
 
-    /*-------------------------- NO LONGER PARTICIPATE (SUCCESS) ------------------------------ */
+    /*-------------------------- SESSION FULL (PARTICIPATE) ------------------------------ */
 
     @Test
-    void shouldRemoveUserFromSession_WhenUserParticipates() {
+    void shouldThrowConflictException_WhenSessionFull() {
         // Given - Préparation des données
         Long sessionId = 1L;
         Long userId = 1L;
 
-        User user = new User();
-        user.setId(userId);
-        user.setEmail("test@example.com");
+        // Configuration des mocks - plus de place, la session existe
+        when(sessionRepository.takeSeat(sessionId)).thenReturn(0);
+        when(sessionRepository.existsById(sessionId)).thenReturn(true);
 
-        Session session = new Session();
-        session.setId(sessionId);
-        session.setName("Yoga Session");
-        session.setUsers(new ArrayList<>());
+        // When & Then - Vérification que l'exception est levée
+        assertThrows(ConflictException.class, () -> {
+            sessionService.participate(sessionId, userId);
+        });
 
-        // User PRÉSENT dans la liste
-        session.getUsers().add(user);
+        verify(sessionRepository, never()).addParticipant(any(), any());
+    }
 
-        Session savedSession = new Session();
-        savedSession.setId(sessionId);
+    /*-------------------------- NO LONGER PARTICIPATE (SUCCESS) ------------------------------ */
 
-        // System.out.println("=== TEST NO LONGER PARTICIPATE - SUCCESS ===");
-        // System.out.println("Participants avant: " + session.getUsers().size());
+    @Test
+    void shouldRemoveUserFromSession_WhenUserParticipates() {
+        // Given - Préparation des données
+        Long sessionId = 1L;
+        Long userId = 1L;
 
-        // Configuration des mocks
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
-        when(sessionRepository.save(session)).thenReturn(savedSession);
+        // Configuration des mocks - une place rendue, une ligne supprimée
+        when(sessionRepository.releaseSeat(sessionId)).thenReturn(1);
+        when(sessionRepository.removeParticipant(sessionId, userId)).thenReturn(1);
 
         // When - Exécution
         sessionService.noLongerParticipate(sessionId, userId);
 
-        // Then - Vérifications
-        // User retiré
-        assertEquals(0, session.getUsers().size());
-        assertFalse(session.getUsers().contains(user));
-
-        // System.out.println("Participants après: " + session.getUsers().size());
-
-        // Vérifications des appels
-        verify(sessionRepository, times(1)).findById(sessionId);
-        verify(sessionRepository, times(1)).save(session);
+        // Then - Seule la ligne du user est supprimée, la liste n'est pas réécrite
+        verify(sessionRepository, times(1)).removeParticipant(sessionId, userId);
+        verify(sessionRepository, never()).existsById(any());
+        verify(sessionRepository, never()).save(any());
     }
 
     /*-------------------------- NO LONGER PARTICIPATE (no session) ------------------------------ */
@@ -444,23 +396,14 @@ public class SessionServiceTest {
         Long sessionId = 999L;
         Long userId = 1L;
 
-        // System.out.println("=== TEST NO LONGER PARTICIPATE - SESSION NOT FOUND ===");
-        // System.out.println("Session ID inexistant: " + sessionId);
-
-        // Configuration du mock - session inexistante
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.empty());
+        // Configuration des mocks - session inexistante
+        when(sessionRepository.releaseSeat(sessionId)).thenReturn(0);
 
         // When & Then - Vérification que l'exception est levée
-        NotFoundException exception = assertThrows(NotFoundException.class, () -> {
+        assertThrows(NotFoundException.class, () -> {
             sessionService.noLongerParticipate(sessionId, userId);
         });
 
-        // System.out.println("Exception NotFoundException levée comme attendu");
-
-        // Vérifications des appels
-        verify(sessionRepository, times(1)).findById(sessionId);
-
-        // Save ne doit pas être appelé
         verify(sessionRepository, never()).save(any());
     }
 
@@ -474,45 +417,239 @@ public class SessionServiceTest {
         // User qui ne participe pas
         Long userId = 999L;
 
-        User otherUser = new User();
-        otherUser.setId(2L);
-        otherUser.setEmail("other@example.com");
+        // Configuration des mocks - session existante, aucune ligne supprimée
+        when(sessionRepository.releaseSeat(sessionId)).thenReturn(1);
+        when(sessionRepository.removeParticipant(sessionId, userId)).thenReturn(0);
+
+        // When & Then - Vérification que l'exception est levée
+        assertThrows(BadRequestException.class, () -> {
+            sessionService.noLongerParticipate(sessionId, userId);
+        });
+
+        verify(sessionRepository, never()).save(any());
+    }
+
+    /*-------------------------- BULK PARTICIPATE ------------------------------ */
 
+    @Test
+    void shouldReportEachUser_WhenBulkParticipate() {
+        // Given - 1 et 2 existent, 2 participe déjà, 9 n'existe pas, une seule place restante pour 1 et 3
+        Long sessionId = 1L;
         Session session = new Session();
         session.setId(sessionId);
-        session.setName("Yoga Session");
-        session.setUsers(new ArrayList<>());
+        session.setCapacity(3);
+        session.setSeatsTaken(2);
+
+        when(sessionRepository.findForUpdateById(sessionId)).thenReturn(Optional.of(session));
+        when(userRepository.findAllById(any())).thenReturn(Arrays.asList(
+                new User().setId(1L), new User().setId(2L), new User().setId(3L)));
+        when(sessionRepository.findParticipantIdsAmong(eq(sessionId), any())).thenReturn(List.of(2L));
+
+        // When
+        BulkParticipationResponse result = sessionService.participateAll(sessionId, Arrays.asList(1L, 2L, 9L, 3L, 1L));
+
+        // Then - les doublons de la requête ne comptent qu'une fois
+        assertEquals(List.of(1L), result.getAdded());
+        assertEquals(List.of(2L), result.getDuplicate());
+        assertEquals(List.of(9L), result.getUnknown());
+        assertEquals(List.of(3L), result.getFull());
+        verify(sessionRepository, times(1)).addParticipants(sessionId, List.of(1L));
+        verify(sessionRepository, times(1)).takeSeats(sessionId, 1);
+    }
 
-        // Seulement otherUser, pas userId=999
-        session.getUsers().add(otherUser);
+    @Test
+    void shouldThrowNotFoundException_WhenSessionNotExists_OnBulkParticipate() {
+        // Given
+        when(sessionRepository.findForUpdateById(999L)).thenReturn(Optional.empty());
 
-        // System.out.println("=== TEST NO LONGER PARTICIPATE - USER NOT PARTICIPATING
-        // ===");
-        // System.out.println("User ID " + userId + " ne participe pas à la session");
-        // System.out.println("Participants actuels: " + session.getUsers().size());
+        // When & Then
+        assertThrows(NotFoundException.class, () -> sessionService.participateAll(999L, List.of(1L)));
 
-        // Configuration du mock
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
+        verify(userRepository, never()).findAllById(any());
+        verify(sessionRepository, never()).addParticipants(any(), any());
+    }
 
-        // When & Then - Vérification que l'exception est levée
-        BadRequestException exception = assertThrows(BadRequestException.class, () -> {
-            sessionService.noLongerParticipate(sessionId, userId);
-        });
+    /*-------------------------- FIND PAGE ------------------------------ */
 
-        // System.out.println("Exception BadRequestException levée comme attendu");
+    @Test
+    void shouldReturnSliceWithNext_WhenMoreSessionsThanPageSize() {
+        // Given - le repository renvoie une ligne de plus que la taille demandée
+        Session session1 = new Session().setId(1L).setDate(new Date(1000L));
+        Session session2 = new Session().setId(2L).setDate(new Date(2000L));
+        Session session3 = new Session().setId(3L).setDate(new Date(3000L));
+
+        when(sessionRepository.findPage(SessionFilter.NONE, null, Sort.Direction.ASC, 3))
+                .thenReturn(Arrays.asList(session1, session2, session3));
+
+        // When
+        Slice<Session> page = sessionService.findPage(SessionFilter.NONE, null, 2, Sort.Direction.ASC);
+
+        // Then
+        assertTrue(page.hasNext());
+        assertEquals(2, page.getContent().size());
+        assertEquals(2L, page.getContent().get(1).getId());
+    }
 
-        // Vérifications
-        // Liste inchangée
-        assertEquals(1, session.getUsers().size());
+    @Test
+    void shouldReturnLastSlice_WhenNoMoreSessions() {
+        // Given
+        SessionCursor cursor = new SessionCursor(new Date(2000L), 2L);
+        Session session3 = new Session().setId(3L).setDate(new Date(3000L));
 
-        // otherUser toujours présent
-        assertTrue(session.getUsers().contains(otherUser));
+        when(sessionRepository.findPage(SessionFilter.NONE, cursor, Sort.Direction.DESC, 3))
+                .thenReturn(List.of(session3));
 
-        // Vérifications des appels
-        verify(sessionRepository, times(1)).findById(sessionId);
+        // When
+        Slice<Session> page = sessionService.findPage(SessionFilter.NONE, cursor, 2, Sort.Direction.DESC);
 
-        // Save ne doit pas être appelé
-        verify(sessionRepository, never()).save(any());
+        // Then
+        assertFalse(page.hasNext());
+        assertEquals(1, page.getContent().size());
+    }
+
+    @Test
+    void shouldCapPageSize_WhenSizeAboveMaximum() {
+        // Given
+        when(sessionRepository.findPage(SessionFilter.NONE, null, Sort.Direction.ASC, SessionService.MAX_PAGE_SIZE + 1))
+                .thenReturn(new ArrayList<>());
+
+        // When
+        sessionService.findPage(SessionFilter.NONE, null, 10_000, Sort.Direction.ASC);
+
+        // Then
+        verify(sessionRepository, times(1)).findPage(SessionFilter.NONE, null, Sort.Direction.ASC, SessionService.MAX_PAGE_SIZE + 1);
+    }
+
+    @Test
+    void shouldThrowBadRequestException_WhenPageSizeNotPositive() {
+        assertThrows(BadRequestException.class, () -> sessionService.findPage(SessionFilter.NONE, null, 0, Sort.Direction.ASC));
+
+        verify(sessionRepository, never()).findPage(any(), any(), any(), anyInt());
+    }
+
+    /*-------------------------- FILTERED SESSIONS ------------------------------ */
+
+    @Test
+    void shouldReturnMatchingSessions_WhenFiltered() {
+        // Given
+        SessionFilter filter = new SessionFilter(new Date(1000L), new Date(5000L), 1L);
+        Session session = new Session().setId(1L).setDate(new Date(2000L));
+
+        when(sessionRepository.findMatching(filter)).thenReturn(List.of(session));
+
+        // When
+        List<Session> sessions = sessionService.findMatching(filter);
+
+        // Then
+        assertEquals(List.of(session), sessions);
+    }
+
+    @Test
+    void shouldThrowBadRequestException_WhenDateRangeEmpty() {
+        // Given - "to" n'est pas après "from"
+        SessionFilter filter = new SessionFilter(new Date(5000L), new Date(5000L), null);
+
+        // When & Then
+        assertThrows(BadRequestException.class, () -> sessionService.findMatching(filter));
+        assertThrows(BadRequestException.class, () -> sessionService.findPage(filter, null, 10, Sort.Direction.ASC));
+
+        verify(sessionRepository, never()).findMatching(any());
+        verify(sessionRepository, never()).findPage(any(), any(), any(), anyInt());
+    }
+
+    /*-------------------------- SESSION SUMMARIES ------------------------------ */
+
+    @Test
+    void shouldReturnSummaryWithParticipantIds_WhenSessionExists() {
+        // Given
+        Long sessionId = 1L;
+        SessionSummaryDto summary = new SessionSummaryDto(sessionId, "Yoga Session", new Date(), "Morning yoga",
+                2L, 2, null, null);
+
+        when(sessionRepository.findSummaryById(sessionId)).thenReturn(Optional.of(summary));
+        when(sessionRepository.findParticipantIds(sessionId)).thenReturn(Arrays.asList(3L, 4L));
+
+        // When
+        SessionSummaryDto result = sessionService.getSummaryById(sessionId);
+
+        // Then
+        assertNotNull(result);
+        assertEquals(2, result.getParticipantCount());
+        assertEquals(Arrays.asList(3L, 4L), result.getUsers());
+        verify(sessionRepository, never()).findWithParticipantsById(any());
+    }
+
+    @Test
+    void shouldReturnNullSummary_WhenSessionNotExists() {
+        // Given
+        when(sessionRepository.findSummaryById(999L)).thenReturn(Optional.empty());
+
+        // When
+        SessionSummaryDto result = sessionService.getSummaryById(999L);
+
+        // Then
+        assertNull(result);
+        verify(sessionRepository, never()).findParticipantIds(any());
+    }
+
+    /*-------------------------- EXPORT SESSIONS ------------------------------ */
+
+    @Test
+    void shouldGroupStreamedRowsBySession_WhenExporting() {
+        // Given - une ligne par participant, une seule ligne sans participant
+        when(sessionRepository.streamAllWithParticipantIds()).thenReturn(Stream.of(
+                new Row(1L, "Yoga Session", 2L, 3L),
+                new Row(1L, "Yoga Session", 2L, 4L),
+                new Row(2L, "Empty Session", 2L, null)));
+        List<SessionDto> exported = new ArrayList<>();
+
+        // When
+        sessionService.exportAll(exported::add);
+
+        // Then
+        assertEquals(2, exported.size());
+        assertEquals(1L, exported.get(0).getId());
+        assertEquals(2L, exported.get(0).getTeacher_id());
+        assertEquals(Arrays.asList(3L, 4L), exported.get(0).getUsers());
+        assertEquals("Empty Session", exported.get(1).getName());
+        assertTrue(exported.get(1).getUsers().isEmpty());
+    }
+
+    @Test
+    void shouldExportNothing_WhenNoSession() {
+        // Given
+        when(sessionRepository.streamAllWithParticipantIds()).thenReturn(Stream.empty());
+        List<SessionDto> exported = new ArrayList<>();
+
+        // When
+        sessionService.exportAll(exported::add);
+
+        // Then
+        assertTrue(exported.isEmpty());
+    }
+
+    private static class Row implements SessionParticipantRow {
+        private final Long id;
+        private final String name;
+        private final Long teacherId;
+        private final Long userId;
+
+        Row(Long id, String name, Long teacherId, Long userId) {
+            this.id = id;
+            this.name = name;
+            this.teacherId = teacherId;
+            this.userId = userId;
+        }
+
+        public Long getId() { return id; }
+        public String getName() { return name; }
+        public Date getDate() { return null; }
+        public String getDescription() { return "Description"; }
+        public Integer getCapacity() { return null; }
+        public Long getTeacherId() { return teacherId; }
+        public LocalDateTime getCreatedAt() { return null; }
+        public LocalDateTime getUpdatedAt() { return null; }
+        public Long getUserId() { return userId; }
     }
 
 }
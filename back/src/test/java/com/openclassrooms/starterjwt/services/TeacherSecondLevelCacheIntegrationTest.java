@@ -0,0 +1,202 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class TeacherSecondLevelCacheIntegrationTest {
+
+    @Autowired
+    private TeacherService teacherService;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private SessionMapper sessionMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Teacher testTeacher;
+
+    // La base est partagée : on ne supprime que ce que le test a créé
+    private final List<Long> teacherIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        testTeacher = saveTeacher(new Teacher().setFirstName("John").setLastName("Doe"));
+
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        teacherRepository.deleteAllById(teacherIds);
+        teacherIds.clear();
+    }
+
+    /*---------------- FIND BY ID ----------------*/
+    @Test
+    void shouldServeRepeatedFindByIdFromRegion() {
+        // Given
+        teacherService.findById(testTeacher.getId());
+        long statementsAfterFirstRead = statistics.getPrepareStatementCount();
+
+        // When
+        Teacher teacher = teacherService.findById(testTeacher.getId());
+
+        // Then - la seconde lecture vient de la région "teachers", sans requête SQL
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(Teacher.CACHE_REGION);
+        assertThat(teacher.getLastName()).isEqualTo("Doe");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsAfterFirstRead);
+        assertThat(region.getHitCount()).isEqualTo(1);
+        assertThat(region.getMissCount()).isEqualTo(1);
+    }
+
+    /*---------------- FIND ALL ----------------*/
+    @Test
+    void shouldServeRepeatedFindAllFromQueryCache() {
+        // Given
+        teacherService.findAll();
+        long statementsAfterFirstRead = statistics.getPrepareStatementCount();
+
+        // When
+        List<Teacher> teachers = teacherService.findAll();
+
+        // Then
+        assertThat(teachers).extracting(Teacher::getLastName).contains("Doe");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsAfterFirstRead);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldListNewTeacher_AfterCachedFindAll() {
+        // Given
+        teacherService.findAll();
+
+        // When - une écriture sur TEACHERS invalide le résultat en cache
+        saveTeacher(new Teacher().setFirstName("Anna").setLastName("Smith"));
+        List<Teacher> teachers = teacherService.findAll();
+
+        // Then
+        assertThat(teachers).extracting(Teacher::getLastName).contains("Doe", "Smith");
+    }
+
+    /*---------------- SESSION MAPPING ----------------*/
+    @Test
+    void shouldResolveSessionReferencesFromRegions() {
+        // Given - le teacher et le participant sont déjà dans leurs régions
+        User user = userRepository.save(new User()
+                .setEmail("l2-mapping@example.com")
+                .setFirstName("Cache")
+                .setLastName("Mapping")
+                .setPassword("password123")
+                .setAdmin(false));
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName("L2 Yoga");
+        sessionDto.setDescription("Mapped from the regions");
+        sessionDto.setDate(new Date());
+        sessionDto.setTeacher_id(testTeacher.getId());
+        sessionDto.setUsers(List.of(user.getId()));
+
+        try {
+            teacherService.findById(testTeacher.getId());
+            userService.findById(user.getId());
+            statistics.clear();
+
+            // When
+            Session session = sessionMapper.toEntity(sessionDto);
+
+            // Then - aucune requête : pas d'IN sur TEACHERS ni sur USERS
+            assertThat(session.getTeacher().getId()).isEqualTo(testTeacher.getId());
+            assertThat(session.getUsers()).extracting(User::getId).containsExactly(user.getId());
+            assertThat(statistics.getPrepareStatementCount()).isZero();
+        } finally {
+            userRepository.deleteById(user.getId());
+        }
+    }
+
+    /*---------------- NATIVE WRITES ELSEWHERE ----------------*/
+    @Test
+    void shouldKeepTeachersCached_WhenParticipationOrSignUpWritten() {
+        // Given
+        User user = userRepository.save(new User()
+                .setEmail("l2-participant@example.com")
+                .setFirstName("Cache")
+                .setLastName("Participant")
+                .setPassword("password123")
+                .setAdmin(false));
+        Session session = sessionRepository.save(new Session()
+                .setName("L2 Yoga")
+                .setDescription("Native writes")
+                .setDate(new Date())
+                .setTeacher(testTeacher)
+                .setUsers(new ArrayList<>()));
+        teacherService.findById(testTeacher.getId());
+        teacherService.findAll();
+
+        try {
+            // When - des requêtes natives sur PARTICIPATE, SESSIONS et USERS
+            sessionService.participate(session.getId(), user.getId());
+            sessionService.noLongerParticipate(session.getId(), user.getId());
+            userRepository.register("l2-signup@example.com", "Signup", "Cache", "password123", LocalDateTime.now());
+            statistics.clear();
+            teacherService.findById(testTeacher.getId());
+            teacherService.findAll();
+
+            // Then - ni la région "teachers" ni le résultat de findAll n'ont été vidés
+            assertThat(statistics.getDomainDataRegionStatistics(Teacher.CACHE_REGION).getMissCount()).isZero();
+            assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+            assertThat(statistics.getPrepareStatementCount()).isZero();
+        } finally {
+            sessionRepository.deleteById(session.getId());
+            userRepository.deleteById(user.getId());
+            userRepository.findByEmail("l2-signup@example.com").ifPresent(userRepository::delete);
+        }
+    }
+
+    private Teacher saveTeacher(Teacher teacher) {
+        Teacher saved = teacherRepository.save(teacher);
+        teacherIds.add(saved.getId());
+        return saved;
+    }
+}
@@ -50,6 +50,15 @@ describe('SessionApiService (integration tests)', () => {
     httpMock.verify();
   });
 
+  it('should ask for the whole session list', () => {
+    service.all().subscribe((sessions) => {
+      expect(sessions).toEqual([mockSession]);
+    });
+    const req = httpMock.expectOne('api/session?all=true');
+    expect(req.request.method).toBe('GET');
+    req.flush([mockSession]);
+  });
+
   it('should get session by id', () => {
     service.detail('1').subscribe((session) => {
       expect(session).toEqual(mockSession);
@@ -14,7 +14,8 @@ export class SessionApiService {
   }
 
   public all(): Observable<Session[]> {
-    return this.httpClient.get<Session[]>(this.pathService);
+    // The API pages by default; the whole list has to be asked for
+    return this.httpClient.get<Session[]>(this.pathService, { params: { all: 'true' } });
   }
 
   public detail(id: string): Observable<Session> {
@@ -1,44 +1,12 @@
-CREATE TABLE `TEACHERS` (
-  `id` INT PRIMARY KEY AUTO_INCREMENT,
-  `last_name` VARCHAR(40),
-  `first_name` VARCHAR(40),
-  `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-  `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
-);
-
-CREATE TABLE `SESSIONS` (
-  `id` INT PRIMARY KEY AUTO_INCREMENT,
-  `name` VARCHAR(50),
-  `description` VARCHAR(2000),
-  `date` TIMESTAMP,
-  `teacher_id` int,
-  `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-  `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
-);
-
-CREATE TABLE `USERS` (
-  `id` INT PRIMARY KEY AUTO_INCREMENT,
-  `last_name` VARCHAR(40),
-  `first_name` VARCHAR(40),
-  `admin` BOOLEAN NOT NULL DEFAULT false,
-  `email` VARCHAR(255),
-  `password` VARCHAR(255),
-  `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-  `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
-);
-
-CREATE TABLE `PARTICIPATE` (
-  `user_id` INT, 
-  `session_id` INT
-);
-
-ALTER TABLE `SESSIONS` ADD FOREIGN KEY (`teacher_id`) REFERENCES `TEACHERS` (`id`);
-ALTER TABLE `PARTICIPATE` ADD FOREIGN KEY (`user_id`) REFERENCES `USERS` (`id`);
-ALTER TABLE `PARTICIPATE` ADD FOREIGN KEY (`session_id`) REFERENCES `SESSIONS` (`id`);
-
-INSERT INTO TEACHERS (first_name, last_name)
-VALUES ('Margot', 'DELAHAYE'),
-       ('Hélène', 'THIERCELIN');
+-- Demo data. The tables are created by the Flyway migrations in
+-- back/src/main/resources/db/migration when the backend starts.
+
+INSERT INTO TEACHERS (id, first_name, last_name)
+SELECT next_val, 'Margot', 'DELAHAYE' FROM ID_GENERATORS WHERE name = 'TEACHERS';
+INSERT INTO TEACHERS (id, first_name, last_name)
+SELECT next_val + 1, 'Hélène', 'THIERCELIN' FROM ID_GENERATORS WHERE name = 'TEACHERS';
+-- Teacher ids are allocated from ID_GENERATORS, skip the two taken above
+UPDATE ID_GENERATORS SET next_val = next_val + 2 WHERE name = 'TEACHERS';
 
 
 INSERT INTO USERS (first_name, last_name, admin, email, password)